@@ -0,0 +1,114 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pw.ollie.args;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Expands {@code @path} arguments to the tokens in the named file. Files are
+ * memory mapped and tokenized as UTF-8 with the rules of {@link
+ * Arguments#parse(CharSequence)} in a single pass which records only token
+ * offsets, so {@link String}s are only created for tokens which are requested.
+ */
+final class ArgFiles {
+    /**
+     * The prefix of an argument naming a file to expand.
+     */
+    static final char PREFIX = '@';
+
+    private ArgFiles() {
+    }
+
+    /**
+     * Parses the given arguments, expanding any {@code @path} arguments to the
+     * contents of the named file. An argument beginning with {@code @@} is not
+     * expanded, and is passed on with the first {@code @} removed.
+     *
+     * @param parse the raw arguments
+     * @return a new {@link Arguments} object for the expanded arguments
+     * @throws IOException if a named file can't be read
+     */
+    static Arguments expand(String[] parse) throws IOException {
+        TokenClassifier classifier = new TokenClassifier(parse.length);
+        List<Tokens> parts = new ArrayList<>();
+        int plainStart = 0;
+        String[] plain = parse;
+
+        for (int i = 0; i < parse.length; i++) {
+            String element = parse[i];
+            if (element.length() < 2 || element.charAt(0) != PREFIX) {
+                classifier.add(element);
+                continue;
+            }
+            if (element.charAt(1) == PREFIX) {
+                // escaped, so not a file
+                if (plain == parse) {
+                    plain = parse.clone();
+                }
+                plain[i] = element.substring(1);
+                classifier.add(plain[i]);
+                continue;
+            }
+
+            if (i > plainStart) {
+                parts.add(new StringTokens(
+                        Arrays.copyOfRange(plain, plainStart, i)));
+            }
+            parts.add(LineTokenizer.tokenize(map(element.substring(1)),
+                    classifier));
+            plainStart = i + 1;
+        }
+        classifier.finish();
+
+        if (parts.isEmpty()) {
+            return new Arguments(new StringTokens(plain), classifier);
+        }
+        if (plainStart < parse.length) {
+            parts.add(new StringTokens(
+                    Arrays.copyOfRange(plain, plainStart, parse.length)));
+        }
+        return new Arguments(
+                new CompositeTokens(parts.toArray(new Tokens[0])), classifier);
+    }
+
+    private static Utf8Bytes map(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(path),
+                StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Argument file too large: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, size);
+            return new Utf8Bytes(buffer, 0, (int) size);
+        }
+    }
+}
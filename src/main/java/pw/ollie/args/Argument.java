@@ -23,19 +23,94 @@
  */
 package pw.ollie.args;
 
+import java.util.Locale;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+
 /**
  * A wrapper around a {@link String} which allows for parsing of many primitive
  * data types as well as providing methods to check whether the argument is a
  * valid form of said primitive types.
  *
+ * An Argument may also be a view of a region of a larger {@link CharSequence},
+ * such as a whole command line, or of UTF-8 encoded bytes, in which case the
+ * {@link String} is only created when it is first needed. Numeric values are
+ * parsed directly from the backing characters or bytes. {@link
+ * #substring(int, int)}, {@link #concat(String)}, {@link #toLowerCase()} and
+ * {@link #toUpperCase()} also return views sharing the same characters where
+ * possible, and {@link #equals(Object)} and {@link #hashCode()} read the
+ * characters in place.
+ *
  * Argument objects are immutable and any methods which may appear to make
  * a modification(s) to the state of the Argument will return a new object.
+ * The only exception is the {@link pw.ollie.args.params.Parameter}s of a
+ * {@link pw.ollie.args.params.impl.RecyclingParser}, which are refilled by
+ * the thread they belong to.
+ *
+ * An Argument may be created with memoization enabled, in which case the
+ * first numeric conversion or check of each kind (integral or floating point)
+ * stores its result, and later conversions and checks read it back instead
+ * of parsing the value again. This is safe when the Argument is shared
+ * between threads: at worst, two threads both parse the value.
  */
-public class Argument {
+public class Argument implements CharSequence {
+    /**
+     * Set in {@link #memo} when the value has been parsed as a long.
+     */
+    private static final byte LONG_CHECKED = 1;
+    /**
+     * Set in {@link #memo} when the value is a valid long.
+     */
+    private static final byte LONG_VALID = 2;
+    /**
+     * Set in {@link #memo} when the value has been parsed as a double.
+     */
+    private static final byte DOUBLE_CHECKED = 4;
+    /**
+     * Set in {@link #memo} when the value is a valid double.
+     */
+    private static final byte DOUBLE_VALID = 8;
+
+    /**
+     * The characters backing this Argument.
+     */
+    private CharSequence source;
+    /**
+     * The offset of this Argument's value in {@link #source}.
+     */
+    private int offset;
+    /**
+     * The length of this Argument's value.
+     */
+    private int length;
+    /**
+     * The raw string for the argument wrapped by this Argument object. Lazily
+     * created from {@link #source} for views.
+     */
+    private String raw;
+    /**
+     * Whether numeric conversions of this Argument are memoized.
+     */
+    private boolean memoize;
+    /**
+     * Which memoized values have been computed, as a combination of the
+     * {@code *_CHECKED} and {@code *_VALID} bits. Written after {@link
+     * #longValue} or {@link #doubleValue} so that a thread which sees a bit set
+     * also sees the value.
+     */
+    private volatile byte memo;
+    /**
+     * The memoized value of this Argument parsed as a long, if the {@link
+     * #LONG_VALID} bit of {@link #memo} is set.
+     */
+    private long longValue;
     /**
-     * The raw string for the argument wrapped by this Argument object.
+     * The memoized value of this Argument parsed as a double, if the {@link
+     * #DOUBLE_VALID} bit of {@link #memo} is set.
      */
-    private final String raw;
+    private double doubleValue;
 
     /**
      * Creates a new Argument, using the given String argument as a raw
@@ -44,10 +119,83 @@ public class Argument {
      * @param arg the raw string for this Argument
      */
     public Argument(String arg) {
+        this(arg, false);
+    }
+
+    /**
+     * Creates a new Argument, using the given String argument as a raw
+     * string, which optionally memoizes its numeric values.
+     *
+     * @param arg the raw string for this Argument
+     * @param memoize whether to memoize numeric conversions
+     */
+    public Argument(String arg, boolean memoize) {
         if (arg == null) {
             throw new IllegalArgumentException();
         }
+        this.source = arg;
+        this.offset = 0;
+        this.length = arg.length();
         this.raw = arg;
+        this.memoize = memoize;
+    }
+
+    /**
+     * Creates a new Argument which is a view of the given region of the given
+     * {@link CharSequence}. The region must not be modified afterwards.
+     *
+     * @param source the characters containing the argument
+     * @param offset the index of the first character of the argument
+     * @param length the length of the argument
+     * @throws IndexOutOfBoundsException if the region isn't within the source
+     */
+    public Argument(CharSequence source, int offset, int length) {
+        this(source, offset, length, false);
+    }
+
+    /**
+     * Creates a new Argument which is a view of the given region of the given
+     * {@link CharSequence}, which optionally memoizes its numeric values.
+     *
+     * @param source the characters containing the argument
+     * @param offset the index of the first character of the argument
+     * @param length the length of the argument
+     * @param memoize whether to memoize numeric conversions
+     * @throws IndexOutOfBoundsException if the region isn't within the source
+     */
+    public Argument(CharSequence source, int offset, int length,
+            boolean memoize) {
+        if (source == null) {
+            throw new IllegalArgumentException();
+        }
+        if (offset < 0 || length < 0 || offset > source.length() - length) {
+            throw new IndexOutOfBoundsException();
+        }
+        this.source = source;
+        this.offset = offset;
+        this.length = length;
+        this.memoize = memoize;
+    }
+
+    /**
+     * Refills this Argument with the given raw string, forgetting any
+     * memoized values, so that it can be reused for another argument. Must
+     * only be used for objects which aren't shared, as Arguments are
+     * otherwise immutable.
+     *
+     * @param arg the new raw string for this Argument
+     * @param memoize whether to memoize numeric conversions
+     */
+    protected void reset(String arg, boolean memoize) {
+        if (arg == null) {
+            throw new IllegalArgumentException();
+        }
+        this.source = arg;
+        this.offset = 0;
+        this.length = arg.length();
+        this.raw = arg;
+        this.memoize = memoize;
+        this.memo = 0;
     }
 
     /**
@@ -56,7 +204,12 @@ public class Argument {
      * @return this Argument's raw String value
      */
     public String get() {
-        return raw;
+        String result = raw;
+        if (result == null) {
+            result = source.subSequence(offset, offset + length).toString();
+            raw = result;
+        }
+        return result;
     }
 
     /**
@@ -66,7 +219,7 @@ public class Argument {
      * @throws NumberFormatException if the value isn't an int
      */
     public int asInt() {
-        return Integer.parseInt(raw);
+        return (int) parseLong(Integer.MIN_VALUE, Integer.MAX_VALUE);
     }
 
     /**
@@ -76,7 +229,10 @@ public class Argument {
      * @throws NumberFormatException if the value isn't a double
      */
     public double asDouble() {
-        return Double.parseDouble(raw);
+        if (memoize && memoDouble()) {
+            return doubleValue;
+        }
+        return Numbers.parseDouble(source, offset, length);
     }
 
     /**
@@ -86,7 +242,7 @@ public class Argument {
      * @throws NumberFormatException if the argument isn't a float
      */
     public float asFloat() {
-        return Float.parseFloat(raw);
+        return Float.parseFloat(get());
     }
 
     /**
@@ -96,7 +252,7 @@ public class Argument {
      * @throws NumberFormatException if the value isn't a long
      */
     public long asLong() {
-        return Long.parseLong(raw);
+        return parseLong(Long.MIN_VALUE, Long.MAX_VALUE);
     }
 
     /**
@@ -106,7 +262,7 @@ public class Argument {
      * @throws NumberFormatException if the value isn't a short
      */
     public short asShort() {
-        return Short.parseShort(raw);
+        return (short) parseLong(Short.MIN_VALUE, Short.MAX_VALUE);
     }
 
     /**
@@ -115,7 +271,7 @@ public class Argument {
      * @return this Argument's value parsed as a boolean
      */
     public Boolean asBoolean() {
-        return Boolean.valueOf(raw);
+        return Boolean.valueOf(get());
     }
 
     /**
@@ -125,7 +281,129 @@ public class Argument {
      * @return this Argument's value parsed as a Character
      */
     public Character asChar() {
-        return raw.length() == 1 ? raw.charAt(0) : null;
+        if (source instanceof Utf8Bytes) {
+            return isChar() ? get().charAt(0) : null;
+        }
+        return length == 1 ? source.charAt(offset) : null;
+    }
+
+    /**
+     * Parses this Argument's value as an int, if it is one. This only parses
+     * the value once and never throws an exception, so is cheaper than calling
+     * {@link #isInt()} followed by {@link #asInt()}.
+     *
+     * @return this Argument's value parsed as an int, or an empty {@link
+     *         OptionalInt} if the value isn't an int
+     */
+    public OptionalInt tryAsInt() {
+        long result = scanLong(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        return result == Numbers.INVALID ? OptionalInt.empty()
+                : OptionalInt.of((int) result);
+    }
+
+    /**
+     * Parses this Argument's value as a long, if it is one. This only parses
+     * the value once and never throws an exception, so is cheaper than calling
+     * {@link #isLong()} followed by {@link #asLong()}.
+     *
+     * @return this Argument's value parsed as a long, or an empty {@link
+     *         OptionalLong} if the value isn't a long
+     */
+    public OptionalLong tryAsLong() {
+        if (memoize) {
+            return memoLong() ? OptionalLong.of(longValue)
+                    : OptionalLong.empty();
+        }
+        long result = Numbers.scanLong(source, offset, length, Long.MIN_VALUE,
+                Long.MAX_VALUE);
+        return Numbers.isValid(result, source, offset, length)
+                ? OptionalLong.of(result) : OptionalLong.empty();
+    }
+
+    /**
+     * Parses this Argument's value as a double, if it is one. This never
+     * throws an exception.
+     *
+     * @return this Argument's value parsed as a double, or an empty {@link
+     *         OptionalDouble} if the value isn't a double
+     */
+    public OptionalDouble tryAsDouble() {
+        return isDouble() ? OptionalDouble.of(asDouble())
+                : OptionalDouble.empty();
+    }
+
+    /**
+     * Returns this Argument's value parsed as an int, or the given default
+     * value if it isn't an int. This never throws an exception.
+     *
+     * @param defaultValue the value to return if this isn't an int
+     * @return this Argument's value parsed as an int, or the default value
+     */
+    public int asInt(int defaultValue) {
+        long result = scanLong(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        return result == Numbers.INVALID ? defaultValue : (int) result;
+    }
+
+    /**
+     * Returns this Argument's value parsed as a long, or the given default
+     * value if it isn't a long. This never throws an exception.
+     *
+     * @param defaultValue the value to return if this isn't a long
+     * @return this Argument's value parsed as a long, or the default value
+     */
+    public long asLong(long defaultValue) {
+        if (memoize) {
+            return memoLong() ? longValue : defaultValue;
+        }
+        long result = Numbers.scanLong(source, offset, length, Long.MIN_VALUE,
+                Long.MAX_VALUE);
+        return Numbers.isValid(result, source, offset, length) ? result
+                : defaultValue;
+    }
+
+    /**
+     * Returns this Argument's value parsed as a double, or the given default
+     * value if it isn't a double. This never throws an exception.
+     *
+     * @param defaultValue the value to return if this isn't a double
+     * @return this Argument's value parsed as a double, or the default value
+     */
+    public double asDouble(double defaultValue) {
+        return isDouble() ? asDouble() : defaultValue;
+    }
+
+    /**
+     * Converts this Argument's value to the given type, using the {@link
+     * Converter} registered for it in {@link Converters}.
+     *
+     * @param type the type to convert to
+     * @param <T> the type to convert to
+     * @return this Argument's value converted to the given type
+     * @throws IllegalArgumentException if there is no converter for the given
+     *         type, or the value can't be converted to it
+     */
+    public <T> T as(Class<T> type) {
+        return converter(type).convert(this);
+    }
+
+    /**
+     * Converts this Argument's value to the given type, if it can be, using
+     * the {@link Converter} registered for it in {@link Converters}.
+     *
+     * @param type the type to convert to
+     * @param <T> the type to convert to
+     * @return this Argument's value converted to the given type, or an empty
+     *         {@link Optional} if the value can't be converted to it
+     * @throws IllegalArgumentException if there is no converter for the given
+     *         type
+     */
+    public <T> Optional<T> tryAs(Class<T> type) {
+        Converter<T> converter = converter(type);
+        try {
+            return Optional.ofNullable(converter.convert(this));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
     }
 
     /**
@@ -134,12 +412,8 @@ public class Argument {
      * @return whether this Argument's value can be parsed as an integer
      */
     public boolean isInt() {
-        try {
-            asInt();
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
-        }
+        return scanLong(Integer.MIN_VALUE, Integer.MAX_VALUE)
+                != Numbers.INVALID;
     }
 
     /**
@@ -148,12 +422,8 @@ public class Argument {
      * @return whether this Argument's value can be parsed as a double
      */
     public boolean isDouble() {
-        try {
-            asDouble();
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
-        }
+        return memoize ? memoDouble() : Numbers.isDouble(source, offset,
+                length);
     }
 
     /**
@@ -162,12 +432,9 @@ public class Argument {
      * @return whether this Argument's value can be parsed as a float
      */
     public boolean isFloat() {
-        try {
-            asFloat();
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
-        }
+        // floats have the same syntax as doubles, and out of range values
+        // become infinity rather than being rejected
+        return isDouble();
     }
 
     /**
@@ -176,12 +443,12 @@ public class Argument {
      * @return whether this Argument's value can be parsed as a long
      */
     public boolean isLong() {
-        try {
-            asLong();
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
+        if (memoize) {
+            return memoLong();
         }
+        long result = Numbers.scanLong(source, offset, length, Long.MIN_VALUE,
+                Long.MAX_VALUE);
+        return Numbers.isValid(result, source, offset, length);
     }
 
     /**
@@ -190,12 +457,7 @@ public class Argument {
      * @return whether this Argument's value can be parsed as a short
      */
     public boolean isShort() {
-        try {
-            asShort();
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
-        }
+        return scanLong(Short.MIN_VALUE, Short.MAX_VALUE) != Numbers.INVALID;
     }
 
     /**
@@ -204,7 +466,7 @@ public class Argument {
      * @return whether this Argument's value can be parsed as a boolean
      */
     public boolean isBoolean() {
-        return raw.equals("true") || raw.equals("false");
+        return get().equals("true") || get().equals("false");
     }
 
     /**
@@ -213,82 +475,325 @@ public class Argument {
      * @return whether this Argument's value can be parsed as a char
      */
     public boolean isChar() {
-        return raw.length() == 1;
+        if (source instanceof Utf8Bytes) {
+            // a single character may be several bytes
+            return length <= 4 && get().length() == 1;
+        }
+        return length == 1;
     }
 
     /**
-     * @return {@code raw.intern()}
-     * @see {@link String#intern()}
+     * Gets the canonical instance of this Argument's value from the shared
+     * {@link StringCache}, which is used instead of {@link String#intern()}.
+     * If the cache is disabled, this is the same as {@link #get()}.
+     *
+     * @return a canonical String equal to this Argument's value
+     * @see StringCache#getShared()
      */
     public String getIntern() {
-        return raw.intern();
+        StringCache cache = StringCache.getShared();
+        if (cache == null) {
+            return get();
+        }
+        if (raw == null && !(source instanceof Utf8Bytes)) {
+            // look up views without creating a String if they are cached
+            String result = cache.canonicalize(source, offset, length);
+            if (result != null) {
+                raw = result;
+                return result;
+            }
+        }
+        return cache.canonicalize(get());
     }
 
     /**
+     * Returns this Argument's value followed by the given string. The result
+     * is a view of this Argument and the string, so no characters are copied
+     * until its value is needed.
+     *
      * @param string the string to add to the end of the current string
-     * @return {@code new Argument(raw.concat(string))}
+     * @return an Argument with the value {@code get().concat(string)}
      * @see {@link String#concat(String)}
      */
     public Argument concat(String string) {
-        return new Argument(raw.concat(string));
+        if (string.isEmpty()) {
+            return this;
+        }
+        return new Argument(new ConcatChars(this, string), 0, length()
+                + string.length(), memoize);
     }
 
     /**
+     * Returns the given region of this Argument's value. The result is a view
+     * of the same characters as this Argument, where possible.
+     *
      * @param startIndex the start of the substring
      * @param endIndex the end of the substring
-     * @return {@code new Argument(raw.substring(startIndex, endIndex))}
+     * @return an Argument with the value {@code get().substring(startIndex,
+     *         endIndex)}
+     * @throws IndexOutOfBoundsException if the indices are out of range
      * @see {@link String#substring(int, int)}
      */
     public Argument substring(int startIndex, int endIndex) {
-        return new Argument(raw.substring(startIndex, endIndex));
+        if (!isIndexable()) {
+            return new Argument(get().substring(startIndex, endIndex),
+                    memoize);
+        }
+        if (startIndex < 0 || endIndex > length || startIndex > endIndex) {
+            throw new StringIndexOutOfBoundsException("begin " + startIndex
+                    + ", end " + endIndex + ", length " + length);
+        }
+        if (startIndex == 0 && endIndex == length) {
+            return this;
+        }
+        return new Argument(source, offset + startIndex, endIndex
+                - startIndex, memoize);
     }
 
     /**
+     * Returns this Argument's value from the given index. The result is a view
+     * of the same characters as this Argument, where possible.
+     *
      * @param startIndex the start of the substring
-     * @return {@code new Argument(raw.substring(startIndex))}
+     * @return an Argument with the value {@code get().substring(startIndex)}
+     * @throws IndexOutOfBoundsException if the index is out of range
      * @see {@link String#substring(int)}
      */
     public Argument substring(int startIndex) {
-        return new Argument(raw.substring(startIndex));
+        return substring(startIndex, length());
     }
 
     /**
-     * @return {@code new Argument(raw.toLowerCase())}
+     * Returns this Argument's value in lower case. If the value is ASCII, the
+     * result is a view of the same characters which converts them as they are
+     * read.
+     *
+     * @return an Argument with the value {@code get().toLowerCase()}
      * @see {@link String#toLowerCase()}
      */
     public Argument toLowerCase() {
-        return new Argument(raw.toLowerCase());
+        return toCase(false);
     }
 
     /**
-     * @return {@code new Argument(raw.toUpperCase())}
+     * Returns this Argument's value in upper case. If the value is ASCII, the
+     * result is a view of the same characters which converts them as they are
+     * read.
+     *
+     * @return an Argument with the value {@code get().toUpperCase()}
      * @see {@link String#toUpperCase()}
      */
     public Argument toUpperCase() {
-        return new Argument(raw.toUpperCase());
+        return toCase(true);
     }
 
     /**
-     * @return {@code raw.toCharArray()}
+     * @return {@code get().toCharArray()}
      * @see {@link String#toCharArray()}
      */
     public char[] toCharArray() {
-        return raw.toCharArray();
+        return get().toCharArray();
+    }
+
+    /**
+     * Checks whether numeric conversions of this Argument are memoized.
+     *
+     * @return whether this Argument memoizes its numeric values
+     */
+    public boolean isMemoized() {
+        return memoize;
+    }
+
+    /**
+     * Gets the length of this Argument's value.
+     *
+     * @return {@code get().length()}
+     */
+    @Override
+    public int length() {
+        return source instanceof Utf8Bytes ? get().length() : length;
+    }
+
+    /**
+     * Gets the character at the given index of this Argument's value.
+     *
+     * @param index the index of the character
+     * @return {@code get().charAt(index)}
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    @Override
+    public char charAt(int index) {
+        if (source instanceof Utf8Bytes) {
+            return get().charAt(index);
+        }
+        if (index < 0 || index >= length) {
+            throw new StringIndexOutOfBoundsException(index);
+        }
+        return source.charAt(offset + index);
+    }
+
+    /**
+     * @return {@link #substring(int, int)}
+     */
+    @Override
+    public Argument subSequence(int start, int end) {
+        return substring(start, end);
     }
 
     @Override
     public boolean equals(Object other) {
-        return other instanceof Argument && ((Argument) other).raw
-                .equals(raw);
+        if (other == this) {
+            return true;
+        }
+        if (!(other instanceof Argument)) {
+            return false;
+        }
+        Argument that = (Argument) other;
+        if (raw != null && that.raw != null) {
+            return raw.equals(that.raw);
+        }
+        if (!isIndexable() || !that.isIndexable()) {
+            return get().equals(that.get());
+        }
+        if (length != that.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (source.charAt(offset + i) != that.source.charAt(that.offset
+                    + i)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return raw.hashCode();
+        if (raw != null || !isIndexable()) {
+            return get().hashCode();
+        }
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            // the same as String.hashCode()
+            hash = 31 * hash + source.charAt(i);
+        }
+        return hash;
     }
 
     @Override
     public String toString() {
-        return raw.intern();
+        return getIntern();
+    }
+
+    /**
+     * Checks whether the characters of {@link #source} are the characters of
+     * this Argument's value, which isn't the case for non-ASCII UTF-8 bytes.
+     */
+    private boolean isIndexable() {
+        return !(source instanceof Utf8Bytes) || isAscii();
+    }
+
+    private boolean isAscii() {
+        for (int i = offset; i < offset + length; i++) {
+            if (source.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Argument toCase(boolean upper) {
+        String language = Locale.getDefault().getLanguage();
+        if (language.equals("tr") || language.equals("az")
+                || language.equals("lt") || !isAscii()) {
+            // conversions which aren't one ASCII character to another
+            String value = get();
+            String result = upper ? value.toUpperCase() : value.toLowerCase();
+            return result == value ? this : new Argument(result, memoize);
+        }
+        for (int i = offset; i < offset + length; i++) {
+            char ch = source.charAt(i);
+            if (CaseFoldedChars.fold(ch, upper) != ch) {
+                return new Argument(CaseFoldedChars.of(source, upper), offset,
+                        length, memoize);
+            }
+        }
+        // already in the requested case
+        return this;
+    }
+
+    private static <T> Converter<T> converter(Class<T> type) {
+        Converter<T> result = Converters.get(type);
+        if (result == null) {
+            throw new IllegalArgumentException("No converter for "
+                    + type.getName());
+        }
+        return result;
+    }
+
+    /**
+     * Parses this Argument's value as a long in the given range, using the
+     * memoized value if there is one.
+     *
+     * @throws NumberFormatException if the value isn't a long in the range
+     */
+    private long parseLong(long min, long max) {
+        if (memoize && memoLong() && longValue >= min && longValue <= max) {
+            return longValue;
+        }
+        return Numbers.parseLong(source, offset, length, min, max);
+    }
+
+    /**
+     * Parses this Argument's value as a long in the given range, using the
+     * memoized value if there is one, returning {@link Numbers#INVALID} if it
+     * isn't one. Only unambiguous if {@code min} isn't {@link Long#MIN_VALUE}.
+     */
+    private long scanLong(long min, long max) {
+        if (!memoize) {
+            return Numbers.scanLong(source, offset, length, min, max);
+        }
+        return memoLong() && longValue >= min && longValue <= max ? longValue
+                : Numbers.INVALID;
+    }
+
+    /**
+     * Memoizes this Argument's value as a long if it hasn't been already.
+     *
+     * @return whether the value is a long, in which case it is in {@link
+     *         #longValue}
+     */
+    private boolean memoLong() {
+        byte state = memo;
+        if ((state & LONG_CHECKED) == 0) {
+            long result = Numbers.scanLong(source, offset, length,
+                    Long.MIN_VALUE, Long.MAX_VALUE);
+            boolean valid = Numbers.isValid(result, source, offset, length);
+            longValue = result;
+            // a racing thread may overwrite the other kind's bits, which only
+            // means that it is parsed again
+            state |= valid ? LONG_CHECKED | LONG_VALID : LONG_CHECKED;
+            memo = state;
+        }
+        return (state & LONG_VALID) != 0;
+    }
+
+    /**
+     * Memoizes this Argument's value as a double if it hasn't been already.
+     *
+     * @return whether the value is a double, in which case it is in {@link
+     *         #doubleValue}
+     */
+    private boolean memoDouble() {
+        byte state = memo;
+        if ((state & DOUBLE_CHECKED) == 0) {
+            boolean valid = Numbers.isDouble(source, offset, length);
+            if (valid) {
+                doubleValue = Numbers.parseDouble(source, offset, length);
+            }
+            state |= valid ? DOUBLE_CHECKED | DOUBLE_VALID : DOUBLE_CHECKED;
+            memo = state;
+        }
+        return (state & DOUBLE_VALID) != 0;
     }
 }
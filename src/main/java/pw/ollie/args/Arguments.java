@@ -27,38 +27,80 @@ import pw.ollie.args.params.Parameter;
 import pw.ollie.args.params.Params;
 import pw.ollie.args.params.ParamsBase;
 
-import java.util.ArrayList;
-import java.util.HashSet;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * A simple and easy to use method of parsing arguments into different primitive
  * types and parsing flags.
+ *
+ * Parsing only records the kind of each token and the indices of non-flag
+ * arguments in primitive arrays. {@link Argument} and {@link Flag} objects are
+ * created on first access and cached, so handlers which only look at a couple
+ * of arguments don't pay for the rest.
  */
 public class Arguments {
     /**
-     * A {@link List} of all of the arguments in {@link Argument} form.
+     * Token kind for a normal (non-flag) argument.
+     */
+    static final byte ARGUMENT = 0;
+    /**
+     * Token kind for the name of a value flag, e.g '-f' in '-f val'.
+     */
+    static final byte VALUE_FLAG = 1;
+    /**
+     * Token kind for the value of a value flag, e.g 'val' in '-f val'.
+     */
+    static final byte FLAG_VALUE = 2;
+    /**
+     * Token kind for a non-value flag, e.g '--f', or '-f' as the last token.
+     */
+    static final byte NON_VALUE_FLAG = 3;
+
+    /**
+     * The tokens for this Arguments object.
      */
-    private final List<Argument> all;
+    private Tokens tokens;
     /**
-     * A {@link List} of arguments, not including flag arguments, in {@link
-     * Argument} form.
+     * The kind of each token.
      */
-    private final List<Argument> arguments;
+    private byte[] kinds;
     /**
-     * A {@link List} of all flags prefixed with -
+     * Indices of tokens which aren't part of a flag.
      */
-    private final Set<Flag> flags;
+    private int[] positional;
     /**
-     * A {@link List} of all flags prefixed with --
+     * The amount of used elements in {@link #positional}.
      */
-    private final Set<Argument> doubleFlags;
+    private int positionalCount;
     /**
-     * The raw String[] of arguments for this Arguments object.
+     * Index of flags by case-folded name, or {@code null} if there are no
+     * flags.
      */
-    private final String[] raw;
+    private FlagIndex flagIndex;
+    /**
+     * The classifier which produced {@link #kinds} and {@link #positional},
+     * kept so its arrays can be reused by {@link #reset(String...)}.
+     */
+    private TokenClassifier classifier;
+    /**
+     * The tokens if they are a snapshot of an {@link IncrementalParser}, which
+     * classify and index themselves, or {@code null}.
+     */
+    private IncrementalTokens snapshot;
+
+    /**
+     * Lazily created {@link Argument} views, indexed by token index.
+     */
+    private Argument[] views;
+    /**
+     * Lazily created {@link Flag} views, indexed by the flag name's token
+     * index.
+     */
+    private Flag[] flagViews;
 
     /**
      * The {@link Params} object for this Arguments object. This contains a
@@ -68,52 +110,71 @@ public class Arguments {
     private Params parameters;
 
     /**
-     * Creates a new Arguments object and immediately parses the given String[]
-     * of arguments into {@link Argument}s and {@link Flag}s.
+     * Creates a new Arguments object and immediately classifies the given
+     * String[] of arguments into normal arguments and flags. {@link Argument}
+     * and {@link Flag} objects are created when they are first requested.
      *
      * @param parse the raw argument {@link String}s to parse
      */
     public Arguments(String... parse) {
-        this.all = new ArrayList<>(parse.length);
-        this.arguments = new ArrayList<>(parse.length);
-        this.flags = new HashSet<>();
-        this.doubleFlags = new HashSet<>();
-        this.raw = parse;
-
-        for (int i = 0; i < raw.length; i++) {
-            String element = raw[i];
-            // construct a single Argument for the arg
-            Argument arg = new Argument(element);
-
-            // add to the list of all arguments
-            all.add(arg);
-
-            if (element.charAt(0) != '-' || element.length() < 2) {
-                // normal argument, or flag with no name (e.g, "-")
-                arguments.add(arg);
-                continue;
-            }
+        this(new StringTokens(parse), TokenClassifier.classify(parse));
+    }
 
-            if (element.charAt(1) == '-') {
-                if (element.length() < 3) {
-                    // arg is "--" - no name given for flag
-                    arguments.add(arg);
-                } else {
-                    // double flag (--, no value)
-                    doubleFlags.add(arg.substring(2));
-                }
-                continue;
-            }
+    /**
+     * Creates a new Arguments object for the given tokens, which have already
+     * been classified by the given {@link TokenClassifier}.
+     *
+     * @param tokens the tokens
+     * @param classifier the finished classifier for the tokens
+     */
+    Arguments(Tokens tokens, TokenClassifier classifier) {
+        load(tokens, classifier);
+    }
 
-            if (i == raw.length - 1) {
-                // single flag but no value given (this is the last arg) so treat as a non-value flag
-                doubleFlags.add(arg.substring(1));
-                continue;
-            }
+    /**
+     * Creates a new Arguments object for the given snapshot of an {@link
+     * IncrementalParser}, which is already classified.
+     *
+     * @param snapshot the tokens
+     */
+    Arguments(IncrementalTokens snapshot) {
+        this.tokens = snapshot;
+        this.snapshot = snapshot;
+        this.positionalCount = snapshot.positionalCount();
+    }
 
-            // single flag (-, value)
-            flags.add(new Flag(element.substring(1), new Argument(raw[++i])));
-        }
+    /**
+     * Creates a new Arguments object from the given String[] of arguments, in
+     * which any argument of the form {@code @path} is replaced by the tokens in
+     * the file at that path. An argument beginning with {@code @@} is kept,
+     * with the first {@code @} removed, rather than being expanded.
+     *
+     * Files are read as UTF-8 through a memory mapping and split into tokens
+     * in the same way as {@link #parse(CharSequence)}. Only the offset of each
+     * token is recorded, so very large files can be expanded without creating
+     * a {@link String} for every token. The files must not be modified while
+     * the returned object is in use.
+     *
+     * @param parse the raw argument {@link String}s to parse
+     * @return a new Arguments object for the expanded arguments
+     * @throws IOException if a file named by an argument can't be read
+     */
+    public static Arguments expandArgFiles(String... parse)
+            throws IOException {
+        return ArgFiles.expand(parse);
+    }
+
+    /**
+     * Parses each of the given String[]s as per {@link #Arguments(String...)},
+     * in parallel on the common {@link java.util.concurrent.ForkJoinPool}.
+     * Use a {@link BatchParser} to control parallelism and chunk size.
+     *
+     * @param batch the raw arguments to parse
+     * @return an unmodifiable {@link List} of Arguments, in the same order as
+     *         the given batch
+     */
+    public static List<Arguments> parseAll(List<String[]> batch) {
+        return BatchParser.common().parseAll(batch);
     }
 
     /**
@@ -132,6 +193,92 @@ public class Arguments {
         this.withParams(paramsBase.createParams(this));
     }
 
+    /**
+     * Clears this Arguments object and parses the given String[] of arguments
+     * into it, reusing its internal arrays where they are large enough. Any
+     * {@link Params} set for this object are removed.
+     *
+     * This allows a single Arguments object to be recycled for many parses,
+     * for example with one object per thread. {@link Argument} and {@link Flag}
+     * objects previously obtained from this object remain valid, but any other
+     * use of this object for the previous arguments must have finished before
+     * this method is called.
+     *
+     * @param parse the raw argument {@link String}s to parse
+     * @return this {@link Arguments} object
+     */
+    public Arguments reset(String... parse) {
+        if (tokens instanceof StringTokens) {
+            ((StringTokens) tokens).reset(parse);
+        } else {
+            tokens = new StringTokens(parse);
+        }
+        if (classifier == null) {
+            classifier = new TokenClassifier(parse.length);
+        } else {
+            classifier.reset(parse.length);
+        }
+        classifier.addAll(parse);
+        load(tokens, classifier);
+
+        if (views != null) {
+            Arrays.fill(views, null);
+        }
+        if (flagViews != null) {
+            Arrays.fill(flagViews, null);
+        }
+        parameters = null;
+        return this;
+    }
+
+    /**
+     * Tokenizes and parses the given command line in a single pass. Tokens are
+     * separated by ASCII whitespace, and may be grouped with double or single
+     * quotes or escaped with a backslash. Tokens are kept as regions of the
+     * given line and {@link String}s are only created for them when requested,
+     * so the given {@link CharSequence} must not be modified afterwards.
+     *
+     * @param line the command line to parse
+     * @return a new Arguments object for the tokens in the given line
+     */
+    public static Arguments parse(CharSequence line) {
+        return LineTokenizer.tokenize(line);
+    }
+
+    /**
+     * Tokenizes and parses the given UTF-8 encoded command line, from the
+     * buffer's position to its limit, in the same way as {@link
+     * #parse(CharSequence)}. The buffer may be direct. Flags are classified
+     * and numbers are parsed directly from the bytes, and tokens are only
+     * decoded to {@link String}s when requested. The buffer's position and
+     * limit aren't changed, but its contents must not be modified afterwards.
+     *
+     * @param buffer the UTF-8 encoded command line to parse
+     * @return a new Arguments object for the tokens in the given bytes
+     */
+    public static Arguments parse(ByteBuffer buffer) {
+        return LineTokenizer.tokenize(new Utf8Bytes(buffer.duplicate(),
+                buffer.position(), buffer.remaining()));
+    }
+
+    /**
+     * Tokenizes and parses the given region of a UTF-8 encoded command line,
+     * as per {@link #parse(ByteBuffer)}. The array must not be modified
+     * afterwards.
+     *
+     * @param bytes the UTF-8 encoded command line to parse
+     * @param offset the index of the first byte of the command line
+     * @param length the amount of bytes in the command line
+     * @return a new Arguments object for the tokens in the given bytes
+     */
+    public static Arguments parse(byte[] bytes, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > bytes.length - length) {
+            throw new IndexOutOfBoundsException();
+        }
+        return LineTokenizer.tokenize(
+                new Utf8Bytes(ByteBuffer.wrap(bytes), offset, length));
+    }
+
     /**
      * Gets the {@link Argument} for the argument at the given index.
      *
@@ -150,11 +297,7 @@ public class Arguments {
      * @return a Argument object for the argument at the given index
      */
     public Argument get(int index, boolean includeFlagArgs) {
-        if (includeFlagArgs) {
-            return all.get(index);
-        } else {
-            return arguments.get(index);
-        }
+        return view(tokenIndex(index, includeFlagArgs));
     }
 
     /**
@@ -175,7 +318,98 @@ public class Arguments {
      * @return a raw String for the argument at the given index
      */
     public String getString(int index, boolean includeFlagArgs) {
-        return get(index, includeFlagArgs).get();
+        return tokens.string(tokenIndex(index, includeFlagArgs));
+    }
+
+    /**
+     * Parses the arguments from the given index to the end as ints, in one
+     * pass and without creating an {@link Argument} for each.
+     *
+     * @param start the index of the first argument to parse
+     * @param includeFlagArgs whether to include flag args in the index and
+     *        values
+     * @return the parsed values, or {@code null} if any argument isn't an int
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public int[] getInts(int start, boolean includeFlagArgs) {
+        int[] result = new int[remaining(start, includeFlagArgs)];
+        TokenChars adapter = new TokenChars(tokens);
+        for (int i = 0; i < result.length; i++) {
+            int token = tokenIndex(start + i, includeFlagArgs);
+            CharSequence chars = tokens.source(token);
+            int offset = tokens.offset(token);
+            if (chars == null) {
+                chars = adapter.select(token);
+            }
+            long value = Numbers.scanLong(chars, offset, tokens.length(token),
+                    Integer.MIN_VALUE, Integer.MAX_VALUE);
+            if (value == Numbers.INVALID) {
+                return null;
+            }
+            result[i] = (int) value;
+        }
+        return result;
+    }
+
+    /**
+     * Parses the arguments from the given index to the end as longs, in one
+     * pass and without creating an {@link Argument} for each.
+     *
+     * @param start the index of the first argument to parse
+     * @param includeFlagArgs whether to include flag args in the index and
+     *        values
+     * @return the parsed values, or {@code null} if any argument isn't a long
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public long[] getLongs(int start, boolean includeFlagArgs) {
+        long[] result = new long[remaining(start, includeFlagArgs)];
+        TokenChars adapter = new TokenChars(tokens);
+        for (int i = 0; i < result.length; i++) {
+            int token = tokenIndex(start + i, includeFlagArgs);
+            CharSequence chars = tokens.source(token);
+            int offset = tokens.offset(token);
+            if (chars == null) {
+                chars = adapter.select(token);
+            }
+            int length = tokens.length(token);
+            long value = Numbers.scanLong(chars, offset, length,
+                    Long.MIN_VALUE, Long.MAX_VALUE);
+            if (!Numbers.isValid(value, chars, offset, length)) {
+                return null;
+            }
+            result[i] = value;
+        }
+        return result;
+    }
+
+    /**
+     * Parses the arguments from the given index to the end as doubles, in one
+     * pass and without creating an {@link Argument} for each.
+     *
+     * @param start the index of the first argument to parse
+     * @param includeFlagArgs whether to include flag args in the index and
+     *        values
+     * @return the parsed values, or {@code null} if any argument isn't a
+     *         double
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public double[] getDoubles(int start, boolean includeFlagArgs) {
+        double[] result = new double[remaining(start, includeFlagArgs)];
+        TokenChars adapter = new TokenChars(tokens);
+        for (int i = 0; i < result.length; i++) {
+            int token = tokenIndex(start + i, includeFlagArgs);
+            CharSequence chars = tokens.source(token);
+            int offset = tokens.offset(token);
+            if (chars == null) {
+                chars = adapter.select(token);
+            }
+            int length = tokens.length(token);
+            if (!Numbers.isDouble(chars, offset, length)) {
+                return null;
+            }
+            result[i] = Numbers.parseDouble(chars, offset, length);
+        }
+        return result;
     }
 
     /**
@@ -251,12 +485,8 @@ public class Arguments {
      *         null} if there isn't one
      */
     public Flag getValueFlag(String flag) {
-        for (Flag f : flags) {
-            if (f.getName().equalsIgnoreCase(flag)) {
-                return f;
-            }
-        }
-        return null;
+        int index = findFlag(VALUE_FLAG, flag);
+        return index < 0 ? null : flagView(index);
     }
 
     /**
@@ -267,12 +497,7 @@ public class Arguments {
      * @return whether these arguments contain a value flag with the given name
      */
     public boolean hasValueFlag(String flag) {
-        for (Flag f : flags) {
-            if (f.getName().equalsIgnoreCase(flag)) {
-                return true;
-            }
-        }
-        return false;
+        return findFlag(VALUE_FLAG, flag) >= 0;
     }
 
     /**
@@ -284,12 +509,7 @@ public class Arguments {
      *         name
      */
     public boolean hasNonValueFlag(String flag) {
-        for (Argument f : doubleFlags) {
-            if (f.get().equalsIgnoreCase(flag)) {
-                return true;
-            }
-        }
-        return false;
+        return findFlag(NON_VALUE_FLAG, flag) >= 0;
     }
 
     /**
@@ -308,11 +528,23 @@ public class Arguments {
      * @return the amount of arguments in this Arguments object
      */
     public int length(boolean includeFlagArgs) {
-        if (includeFlagArgs) {
-            return all.size();
-        } else {
-            return arguments.size();
-        }
+        return includeFlagArgs ? tokens.size() : positionalCount;
+    }
+
+    /**
+     * Gets the amount of positional arguments at the start of these arguments
+     * which are known to be the same {@link Argument} objects as in the given
+     * arguments, without comparing them. This is only known when these
+     * arguments are the snapshot an {@link IncrementalParser} returned for the
+     * edit after the given snapshot, and is zero otherwise.
+     *
+     * @param previous the arguments these arguments may have been edited from
+     * @return the amount of leading positional arguments known to be the same
+     *         as in the given arguments
+     */
+    public int unchangedSince(Arguments previous) {
+        return snapshot != null && previous.snapshot != null
+                ? snapshot.unchangedSince(previous.snapshot) : 0;
     }
 
     /**
@@ -321,8 +553,10 @@ public class Arguments {
      * @return a raw String[] of arguments for this object
      */
     public String[] toStringArray() {
-        String[] result = new String[raw.length];
-        System.arraycopy(raw, 0, result, 0, raw.length);
+        String[] result = new String[tokens.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = tokens.string(i);
+        }
         return result;
     }
 
@@ -344,4 +578,95 @@ public class Arguments {
         this.parameters = parameters;
         return this;
     }
+
+    private void load(Tokens tokens, TokenClassifier classifier) {
+        this.tokens = tokens;
+        this.snapshot = null;
+        this.classifier = classifier;
+        this.kinds = classifier.kinds;
+        this.positional = classifier.positional;
+        this.positionalCount = classifier.positionalCount;
+        this.flagIndex = FlagIndex.build(flagIndex, tokens, kinds,
+                classifier.flagCount);
+    }
+
+    /**
+     * Gets the amount of arguments from the given index to the end, which may
+     * be zero if the index is the amount of arguments.
+     */
+    private int remaining(int start, boolean includeFlagArgs) {
+        int length = length(includeFlagArgs);
+        if (start < 0 || start > length) {
+            throw new IndexOutOfBoundsException(
+                    "Index: " + start + ", Size: " + length);
+        }
+        return length - start;
+    }
+
+    /**
+     * Converts an argument index to a token index.
+     */
+    private int tokenIndex(int index, boolean includeFlagArgs) {
+        if (includeFlagArgs) {
+            if (index < 0 || index >= tokens.size()) {
+                throw new IndexOutOfBoundsException(
+                        "Index: " + index + ", Size: " + tokens.size());
+            }
+            return index;
+        }
+        if (index < 0 || index >= positionalCount) {
+            throw new IndexOutOfBoundsException(
+                    "Index: " + index + ", Size: " + positionalCount);
+        }
+        return snapshot != null ? snapshot.positional(index)
+                : positional[index];
+    }
+
+    /**
+     * Gets the cached {@link Argument} view for the given token, creating it
+     * if it doesn't exist yet.
+     */
+    private Argument view(int token) {
+        if (snapshot != null) {
+            // snapshots share their Argument objects already
+            return snapshot.argument(token);
+        }
+        if (views == null || views.length < tokens.size()) {
+            views = new Argument[tokens.size()];
+        }
+        Argument view = views[token];
+        if (view == null) {
+            view = views[token] = tokens.argument(token);
+        }
+        return view;
+    }
+
+    /**
+     * Gets the cached {@link Flag} view for the value flag whose name is the
+     * given token, creating it if it doesn't exist yet.
+     */
+    private Flag flagView(int token) {
+        if (snapshot != null) {
+            return snapshot.flag(token, snapshot.argument(token + 1));
+        }
+        if (flagViews == null || flagViews.length < tokens.size()) {
+            flagViews = new Flag[tokens.size()];
+        }
+        Flag flag = flagViews[token];
+        if (flag == null) {
+            flag = flagViews[token] = tokens.flag(token, view(token + 1));
+        }
+        return flag;
+    }
+
+    /**
+     * Finds the token index of the first flag of the given kind with the given
+     * name, ignoring case, or -1 if there isn't one.
+     */
+    private int findFlag(byte kind, String name) {
+        if (snapshot != null) {
+            return snapshot.findFlag(kind, name);
+        }
+        return flagIndex == null ? -1 : flagIndex.find(kind, name);
+    }
 }
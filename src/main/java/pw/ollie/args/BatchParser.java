@@ -0,0 +1,230 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pw.ollie.args;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * Parses batches of command lines in parallel on a {@link ForkJoinPool}. A
+ * batch is split into chunks which are parsed by the pool's workers, and the
+ * results are returned in the same order as the input. Each worker thread
+ * tokenizes raw lines using its own scratch arrays.
+ *
+ * A {@link BatchParser} created with {@link #BatchParser(int, int)} owns its
+ * pool, which is shut down by {@link #close()}.
+ */
+public final class BatchParser implements AutoCloseable {
+    /**
+     * The default maximum amount of command lines parsed by a single task.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+
+    /**
+     * A parser using the common pool, used by {@link
+     * Arguments#parseAll(List)}.
+     */
+    private static final BatchParser COMMON = new BatchParser();
+    /**
+     * Scratch tokenizers for each worker thread.
+     */
+    private static final ThreadLocal<LineTokenizer> SCRATCH = ThreadLocal
+            .withInitial(LineTokenizer::new);
+
+    /**
+     * The pool to parse on.
+     */
+    private final ForkJoinPool pool;
+    /**
+     * The maximum amount of command lines parsed by a single task.
+     */
+    private final int chunkSize;
+    /**
+     * Whether {@link #pool} was created by, and so belongs to, this parser.
+     */
+    private final boolean ownsPool;
+
+    /**
+     * Creates a new {@link BatchParser} using the common {@link ForkJoinPool}
+     * and the default chunk size.
+     */
+    public BatchParser() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE, false);
+    }
+
+    /**
+     * Creates a new {@link BatchParser} using the given pool and chunk size.
+     * The pool is not shut down by {@link #close()}.
+     *
+     * @param pool the pool to parse on
+     * @param chunkSize the maximum amount of command lines parsed by a single
+     *        task
+     */
+    public BatchParser(ForkJoinPool pool, int chunkSize) {
+        this(pool, chunkSize, false);
+    }
+
+    /**
+     * Creates a new {@link BatchParser} with its own pool of the given
+     * parallelism, using the given chunk size. The pool is shut down by {@link
+     * #close()}.
+     *
+     * @param parallelism the amount of worker threads to parse with
+     * @param chunkSize the maximum amount of command lines parsed by a single
+     *        task
+     */
+    public BatchParser(int parallelism, int chunkSize) {
+        this(new ForkJoinPool(parallelism), chunkSize, true);
+    }
+
+    private BatchParser(ForkJoinPool pool, int chunkSize, boolean ownsPool) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.ownsPool = ownsPool;
+    }
+
+    /**
+     * Gets a shared {@link BatchParser} which uses the common {@link
+     * ForkJoinPool}.
+     *
+     * @return a shared {@link BatchParser}
+     */
+    public static BatchParser common() {
+        return COMMON;
+    }
+
+    /**
+     * Parses each of the given String[]s as per {@link
+     * Arguments#Arguments(String...)}.
+     *
+     * @param batch the raw arguments to parse
+     * @return an unmodifiable {@link List} of {@link Arguments}, in the same
+     *         order as the given batch
+     */
+    public List<Arguments> parseAll(List<String[]> batch) {
+        return parseAll(batch, Function.identity());
+    }
+
+    /**
+     * Parses each of the given String[]s as per {@link
+     * Arguments#Arguments(String...)}, then applies the given function to the
+     * result on the same worker.
+     *
+     * @param batch the raw arguments to parse
+     * @param then the function to apply to each parsed {@link Arguments}
+     * @param <T> the type of result
+     * @return an unmodifiable {@link List} of the function's results, in the
+     *         same order as the given batch
+     */
+    public <T> List<T> parseAll(List<String[]> batch,
+            Function<? super Arguments, ? extends T> then) {
+        return run(batch, raw -> then.apply(new Arguments(raw)));
+    }
+
+    /**
+     * Tokenizes and parses each of the given command lines as per {@link
+     * Arguments#parse(CharSequence)}.
+     *
+     * @param lines the command lines to parse
+     * @return an unmodifiable {@link List} of {@link Arguments}, in the same
+     *         order as the given lines
+     */
+    public List<Arguments> parseLines(List<? extends CharSequence> lines) {
+        return run(lines, line -> SCRATCH.get().tokenizeCompact(line));
+    }
+
+    /**
+     * Shuts down this parser's pool if it was created by this parser.
+     */
+    @Override
+    public void close() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+
+    private <I, T> List<T> run(List<? extends I> batch,
+            Function<? super I, ? extends T> function) {
+        List<? extends I> items = batch instanceof RandomAccess ? batch
+                : new ArrayList<>(batch);
+        Object[] results = new Object[items.size()];
+        if (results.length <= chunkSize) {
+            // not worth handing to the pool
+            for (int i = 0; i < results.length; i++) {
+                results[i] = function.apply(items.get(i));
+            }
+        } else {
+            pool.invoke(new Chunk<>(items, function, results, 0,
+                    results.length));
+        }
+        @SuppressWarnings("unchecked")
+        List<T> list = (List<T>) Arrays.asList(results);
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * A task which parses a range of a batch, splitting it if it is larger
+     * than the chunk size.
+     */
+    private final class Chunk<I, T> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<? extends I> items;
+        private final Function<? super I, ? extends T> function;
+        private final Object[] results;
+        private final int from;
+        private final int to;
+
+        Chunk(List<? extends I> items, Function<? super I, ? extends T> function,
+                Object[] results, int from, int to) {
+            this.items = items;
+            this.function = function;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                for (int i = from; i < to; i++) {
+                    results[i] = function.apply(items.get(i));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Chunk<>(items, function, results, from, middle),
+                    new Chunk<>(items, function, results, middle, to));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pw.ollie.args;
+
+/**
+ * A {@link CharSequence} view of another {@link CharSequence} with each
+ * character converted to lower or upper case as it is read. Only used for
+ * ASCII characters, for which this gives the same result as {@link
+ * String#toLowerCase()} or {@link String#toUpperCase()}.
+ */
+final class CaseFoldedChars implements CharSequence {
+    /**
+     * The characters before case conversion.
+     */
+    private final CharSequence source;
+    /**
+     * Whether characters are converted to upper case rather than lower case.
+     */
+    private final boolean upper;
+
+    private CaseFoldedChars(CharSequence source, boolean upper) {
+        this.source = source;
+        this.upper = upper;
+    }
+
+    /**
+     * Creates a view of the given characters converted to the given case,
+     * replacing any previous conversion of them.
+     *
+     * @param source the characters to convert
+     * @param upper whether to convert to upper case rather than lower case
+     * @return a view of the converted characters
+     */
+    static CaseFoldedChars of(CharSequence source, boolean upper) {
+        if (source instanceof CaseFoldedChars) {
+            source = ((CaseFoldedChars) source).source;
+        }
+        return new CaseFoldedChars(source, upper);
+    }
+
+    /**
+     * Converts the given ASCII character to lower or upper case.
+     *
+     * @param ch the character to convert
+     * @param upper whether to convert to upper case rather than lower case
+     * @return the converted character
+     */
+    static char fold(char ch, boolean upper) {
+        if (upper) {
+            return ch >= 'a' && ch <= 'z' ? (char) (ch - ('a' - 'A')) : ch;
+        }
+        return ch >= 'A' && ch <= 'Z' ? (char) (ch + ('a' - 'A')) : ch;
+    }
+
+    @Override
+    public int length() {
+        return source.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return fold(source.charAt(index), upper);
+    }
+
+    @Override
+    public String subSequence(int start, int end) {
+        char[] chars = new char[end - start];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = charAt(start + i);
+        }
+        return new String(chars);
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length());
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pw.ollie.args;
+
+import java.util.Arrays;
+
+/**
+ * {@link Tokens} made of several other {@link Tokens} one after another.
+ */
+final class CompositeTokens extends Tokens {
+    /**
+     * The parts, in order.
+     */
+    private final Tokens[] parts;
+    /**
+     * The index of the first token of each part.
+     */
+    private final int[] starts;
+    /**
+     * The total amount of tokens.
+     */
+    private final int size;
+
+    CompositeTokens(Tokens[] parts) {
+        this.parts = parts;
+        this.starts = new int[parts.length];
+        int total = 0;
+        for (int i = 0; i < parts.length; i++) {
+            starts[i] = total;
+            total += parts[i].size();
+        }
+        this.size = total;
+    }
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    int length(int token) {
+        int part = part(token);
+        return parts[part].length(token - starts[part]);
+    }
+
+    @Override
+    char charAt(int token, int index) {
+        int part = part(token);
+        return parts[part].charAt(token - starts[part], index);
+    }
+
+    @Override
+    String string(int token) {
+        int part = part(token);
+        return parts[part].string(token - starts[part]);
+    }
+
+    @Override
+    Argument argument(int token) {
+        int part = part(token);
+        return parts[part].argument(token - starts[part]);
+    }
+
+    @Override
+    int foldedHash(int token, int offset) {
+        int part = part(token);
+        return parts[part].foldedHash(token - starts[part], offset);
+    }
+
+    @Override
+    boolean regionEqualsIgnoreCase(int token, int offset, String name) {
+        int part = part(token);
+        return parts[part].regionEqualsIgnoreCase(token - starts[part],
+                offset, name);
+    }
+
+    private int part(int token) {
+        if (token < 0 || token >= size) {
+            throw new IndexOutOfBoundsException(
+                    "Index: " + token + ", Size: " + size);
+        }
+        int part = Arrays.binarySearch(starts, token);
+        if (part < 0) {
+            return -part - 2;
+        }
+        // skip empty parts starting at the same token
+        while (part + 1 < starts.length && starts[part + 1] == token) {
+            part++;
+        }
+        return part;
+    }
+}
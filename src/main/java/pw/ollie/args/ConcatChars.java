@@ -0,0 +1,73 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pw.ollie.args;
+
+/**
+ * A {@link CharSequence} view of two {@link CharSequence}s one after the
+ * other, used for {@link Argument#concat(String)}.
+ */
+final class ConcatChars implements CharSequence {
+    /**
+     * The first characters.
+     */
+    private final CharSequence left;
+    /**
+     * The characters following {@link #left}.
+     */
+    private final CharSequence right;
+    /**
+     * The length of {@link #left}.
+     */
+    private final int split;
+
+    ConcatChars(CharSequence left, CharSequence right) {
+        this.left = left;
+        this.right = right;
+        this.split = left.length();
+    }
+
+    @Override
+    public int length() {
+        return split + right.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return index < split ? left.charAt(index) : right.charAt(index - split);
+    }
+
+    @Override
+    public String subSequence(int start, int end) {
+        char[] chars = new char[end - start];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = charAt(start + i);
+        }
+        return new String(chars);
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length());
+    }
+}
@@ -0,0 +1,510 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pw.ollie.args;
+
+import java.io.File;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The registry of {@link Converter}s used by {@link Argument#as(Class)}.
+ *
+ * The converter for a type is resolved once, the first time it is needed,
+ * and held in a {@link ClassValue} table. Types are resolved in this order:
+ * <ol>
+ * <li>a converter registered for exactly that type with {@link
+ * #register(Class, Converter)}</li>
+ * <li>the built in converters, for {@link String}, primitives and their
+ * wrappers, {@link BigInteger}, {@link BigDecimal}, {@link UUID}, {@link
+ * Duration}, {@link InetAddress}, {@link Path} and {@link File}</li>
+ * <li>for enums, a lookup of the constant by name, ignoring case if there is
+ * no exact match</li>
+ * <li>a public static {@code valueOf(String)}, {@code of(String)}, {@code
+ * parse(CharSequence)} or {@code fromString(String)} method of the type
+ * returning the type, or else a public constructor taking a {@link
+ * String}</li>
+ * </ol>
+ *
+ * A {@link Duration} may be given in ISO-8601 form, such as {@code PT1M30S},
+ * or as an integer followed by one of the units {@code ns}, {@code us}, {@code
+ * ms}, {@code s}, {@code m}, {@code h} or {@code d}, such as {@code 90s}.
+ */
+public final class Converters {
+    /**
+     * Converters registered for specific types.
+     */
+    private static final Map<Class<?>, Converter<?>> registered =
+            new ConcurrentHashMap<>();
+    /**
+     * The resolved converter for each type, or {@link #NONE}.
+     */
+    private static final ClassValue<Converter<?>> converters =
+            new ClassValue<Converter<?>>() {
+                @Override
+                protected Converter<?> computeValue(Class<?> type) {
+                    Converter<?> result = registered.get(type);
+                    if (result == null) {
+                        result = resolve(type);
+                    }
+                    return result == null ? NONE : result;
+                }
+            };
+    /**
+     * A placeholder for types which have no converter.
+     */
+    private static final Converter<?> NONE = argument -> {
+        throw new IllegalStateException();
+    };
+    /**
+     * The names of static factory methods which are used as converters.
+     */
+    private static final String[] FACTORY_METHODS = {
+            "valueOf", "of", "parse", "fromString"
+    };
+
+    private Converters() {
+    }
+
+    /**
+     * Registers the given {@link Converter} for the given type, replacing any
+     * existing converter for exactly that type. Registering a converter for a
+     * subtype doesn't affect conversions to its supertypes.
+     *
+     * @param type the type to register the converter for
+     * @param converter the converter to register
+     * @param <T> the type to register the converter for
+     */
+    public static <T> void register(Class<T> type,
+            Converter<? extends T> converter) {
+        if (type == null || converter == null) {
+            throw new IllegalArgumentException();
+        }
+        registered.put(type, converter);
+        converters.remove(type);
+    }
+
+    /**
+     * Registers the given {@link Converter} for the given type with a cache of
+     * up to the given number of recent conversions, as with {@link
+     * #cached(Converter, int)}.
+     *
+     * @param type the type to register the converter for
+     * @param converter the converter to register
+     * @param cacheSize the maximum number of conversions to cache
+     * @param <T> the type to register the converter for
+     */
+    public static <T> void register(Class<T> type,
+            Converter<? extends T> converter, int cacheSize) {
+        register(type, cached(converter, cacheSize));
+    }
+
+    /**
+     * Removes the {@link Converter} registered for the given type, if there
+     * is one, so that the type's built in converter is used again.
+     *
+     * @param type the type to unregister the converter for
+     */
+    public static void unregister(Class<?> type) {
+        if (registered.remove(type) != null) {
+            converters.remove(type);
+        }
+    }
+
+    /**
+     * Gets the {@link Converter} for the given type.
+     *
+     * @param type the type to get the converter for
+     * @param <T> the type to get the converter for
+     * @return the converter for the given type, or {@code null} if there is
+     *         none
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Converter<T> get(Class<T> type) {
+        Converter<?> result = converters.get(type);
+        return result == NONE ? null : (Converter<T>) result;
+    }
+
+    /**
+     * Wraps the given {@link Converter} in a cache of recent conversions,
+     * keyed by the argument's value. The cache holds up to the given number of
+     * entries, each of which may be replaced by a later conversion of a
+     * different value, and may be used from many threads. Failed conversions
+     * aren't cached. This is only useful for converters which are slower than
+     * hashing and comparing the value, and always give an equivalent result
+     * for the same value.
+     *
+     * @param converter the converter to cache conversions of
+     * @param size the maximum number of conversions to cache
+     * @param <T> the type the converter converts to
+     * @return a caching converter
+     */
+    public static <T> Converter<T> cached(Converter<? extends T> converter,
+            int size) {
+        if (converter == null || size <= 0) {
+            throw new IllegalArgumentException();
+        }
+        return new CachingConverter<>(converter, size);
+    }
+
+    private static Converter<?> resolve(Class<?> type) {
+        if (type == String.class || type == CharSequence.class
+                || type == Object.class) {
+            return Argument::get;
+        }
+        if (type == Argument.class) {
+            return argument -> argument;
+        }
+        if (type == int.class || type == Integer.class) {
+            return Argument::asInt;
+        }
+        if (type == long.class || type == Long.class) {
+            return Argument::asLong;
+        }
+        if (type == short.class || type == Short.class) {
+            return Argument::asShort;
+        }
+        if (type == double.class || type == Double.class) {
+            return Argument::asDouble;
+        }
+        if (type == float.class || type == Float.class) {
+            return Argument::asFloat;
+        }
+        if (type == byte.class || type == Byte.class) {
+            return argument -> Byte.parseByte(argument.get());
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return Converters::toBoolean;
+        }
+        if (type == char.class || type == Character.class) {
+            return Converters::toChar;
+        }
+        if (type == BigInteger.class) {
+            return argument -> new BigInteger(argument.get());
+        }
+        if (type == BigDecimal.class) {
+            return argument -> new BigDecimal(argument.get());
+        }
+        if (type == UUID.class) {
+            return argument -> UUID.fromString(argument.get());
+        }
+        if (type == Duration.class) {
+            return Converters::toDuration;
+        }
+        if (type == InetAddress.class) {
+            return Converters::toInetAddress;
+        }
+        if (type == Path.class) {
+            return argument -> Paths.get(argument.get());
+        }
+        if (type == File.class) {
+            return argument -> new File(argument.get());
+        }
+        if (type.isEnum()) {
+            return new EnumConverter<>(type);
+        }
+        return factory(type);
+    }
+
+    private static Boolean toBoolean(Argument argument) {
+        if (!argument.isBoolean()) {
+            throw new IllegalArgumentException("Not a boolean: \""
+                    + argument.get() + '"');
+        }
+        return argument.asBoolean();
+    }
+
+    private static Character toChar(Argument argument) {
+        Character result = argument.asChar();
+        if (result == null) {
+            throw new IllegalArgumentException("Not a single character: \""
+                    + argument.get() + '"');
+        }
+        return result;
+    }
+
+    private static Duration toDuration(Argument argument) {
+        String value = argument.get();
+        if (!value.isEmpty() && (value.charAt(0) == 'P'
+                || value.charAt(0) == 'p' || value.charAt(0) == '-'
+                && value.length() > 1 && (value.charAt(1) == 'P'
+                || value.charAt(1) == 'p'))) {
+            try {
+                return Duration.parse(value);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+        }
+
+        int unitStart = value.length();
+        while (unitStart > 0
+                && Character.isLetter(value.charAt(unitStart - 1))) {
+            unitStart--;
+        }
+        TimeUnit unit = timeUnit(value.substring(unitStart));
+        if (unit == null || unitStart == 0) {
+            throw new IllegalArgumentException("Not a duration: \"" + value
+                    + '"');
+        }
+        long amount = Long.parseLong(value.substring(0, unitStart));
+        try {
+            switch (unit) {
+                case NANOSECONDS:
+                    return Duration.ofNanos(amount);
+                case MICROSECONDS:
+                    return Duration.ofNanos(Math.multiplyExact(amount,
+                            1000L));
+                case MILLISECONDS:
+                    return Duration.ofMillis(amount);
+                default:
+                    return Duration.ofSeconds(Math.multiplyExact(amount,
+                            unit.toSeconds(1)));
+            }
+        } catch (ArithmeticException e) {
+            // too long to be a Duration, as with the ISO-8601 form
+            throw new IllegalArgumentException("Duration out of range: \""
+                    + value + '"', e);
+        }
+    }
+
+    private static TimeUnit timeUnit(String suffix) {
+        switch (suffix) {
+            case "ns":
+                return TimeUnit.NANOSECONDS;
+            case "us":
+                return TimeUnit.MICROSECONDS;
+            case "ms":
+                return TimeUnit.MILLISECONDS;
+            case "s":
+                return TimeUnit.SECONDS;
+            case "m":
+                return TimeUnit.MINUTES;
+            case "h":
+                return TimeUnit.HOURS;
+            case "d":
+                return TimeUnit.DAYS;
+            default:
+                return null;
+        }
+    }
+
+    private static InetAddress toInetAddress(Argument argument) {
+        try {
+            return InetAddress.getByName(argument.get());
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Finds a public static factory method or public constructor of the given
+     * type which can be used to convert {@link String}s to it.
+     *
+     * @param type the type to find a factory for
+     * @return a converter calling the factory, or {@code null} if there is none
+     */
+    private static Converter<?> factory(Class<?> type) {
+        if (!Modifier.isPublic(type.getModifiers()) || type.isPrimitive()
+                || type.isArray()) {
+            return null;
+        }
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        for (String name : FACTORY_METHODS) {
+            for (Class<?> parameter : new Class<?>[] {
+                    String.class, CharSequence.class}) {
+                try {
+                    return new FactoryConverter(lookup.findStatic(type, name,
+                            MethodType.methodType(type, parameter)));
+                } catch (NoSuchMethodException | IllegalAccessException e) {
+                    // try the next possible factory
+                }
+            }
+        }
+        if (!Modifier.isAbstract(type.getModifiers())) {
+            try {
+                return new FactoryConverter(lookup.findConstructor(type,
+                        MethodType.methodType(void.class, String.class)));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                // no suitable constructor either
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Converts arguments by passing their value to a factory method or
+     * constructor.
+     */
+    private static final class FactoryConverter implements Converter<Object> {
+        /**
+         * The factory method or constructor, taking a {@link String} or
+         * {@link CharSequence}.
+         */
+        private final MethodHandle factory;
+
+        FactoryConverter(MethodHandle factory) {
+            this.factory = factory.asType(MethodType.methodType(Object.class,
+                    String.class));
+        }
+
+        @Override
+        public Object convert(Argument argument) {
+            try {
+                return factory.invokeExact(argument.get());
+            } catch (IllegalArgumentException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                // such as DateTimeParseException
+                throw new IllegalArgumentException(e.getMessage(), e);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalArgumentException(t.getMessage(), t);
+            }
+        }
+    }
+
+    /**
+     * Converts arguments to enum constants by name. The constants are looked
+     * up in a map built once, matching the exact name first and then the name
+     * ignoring case.
+     */
+    private static final class EnumConverter<E> implements Converter<E> {
+        /**
+         * The enum type.
+         */
+        private final Class<E> type;
+        /**
+         * The constants by exact name.
+         */
+        private final Map<String, E> byName;
+        /**
+         * The constants by lower case name, if unambiguous.
+         */
+        private final Map<String, E> byLowerName;
+
+        @SuppressWarnings("unchecked")
+        EnumConverter(Class<?> type) {
+            this.type = (Class<E>) type;
+            E[] constants = this.type.getEnumConstants();
+            this.byName = new HashMap<>(constants.length * 2);
+            this.byLowerName = new HashMap<>(constants.length * 2);
+            for (E constant : constants) {
+                String name = ((Enum<?>) constant).name();
+                byName.put(name, constant);
+                String lower = name.toLowerCase(Locale.ROOT);
+                if (byLowerName.containsKey(lower)) {
+                    // two constants differ only in case
+                    byLowerName.put(lower, null);
+                } else {
+                    byLowerName.put(lower, constant);
+                }
+            }
+        }
+
+        @Override
+        public E convert(Argument argument) {
+            String value = argument.get();
+            E result = byName.get(value);
+            if (result == null) {
+                result = byLowerName.get(value.toLowerCase(Locale.ROOT));
+                if (result == null) {
+                    throw new IllegalArgumentException("No constant of "
+                            + type.getName() + " named \"" + value + '"');
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Caches recent conversions of another {@link Converter} in a fixed size
+     * table indexed by the hash of the value. Entries are immutable, so the
+     * table may be read and replaced by many threads without locking.
+     */
+    private static final class CachingConverter<T> implements Converter<T> {
+        /**
+         * The converter to cache the conversions of.
+         */
+        private final Converter<? extends T> converter;
+        /**
+         * The cached conversions, each of which may be {@code null}.
+         */
+        private final Entry<T>[] table;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        CachingConverter(Converter<? extends T> converter, int size) {
+            this.converter = converter;
+            this.table = new Entry[size];
+        }
+
+        @Override
+        public T convert(Argument argument) {
+            String value = argument.get();
+            int hash = value.hashCode();
+            int index = ((hash ^ (hash >>> 16)) & 0x7FFFFFFF) % table.length;
+            Entry<T> entry = table[index];
+            if (entry != null && entry.value.equals(value)) {
+                return entry.result;
+            }
+            T result = converter.convert(argument);
+            table[index] = new Entry<>(value, result);
+            return result;
+        }
+    }
+
+    /**
+     * A cached conversion.
+     */
+    private static final class Entry<T> {
+        /**
+         * The value which was converted.
+         */
+        final String value;
+        /**
+         * The result of converting the value.
+         */
+        final T result;
+
+        Entry(String value, T result) {
+            this.value = value;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pw.ollie.args;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash index of the flags in an {@link Arguments} object,
+ * keyed by case-folded flag name. Flags are inserted in token order, so with
+ * linear probing the first occurrence of a name is always found first,
+ * matching a linear search.
+ */
+final class FlagIndex {
+    /**
+     * The tokens which were indexed.
+     */
+    private Tokens tokens;
+    /**
+     * The kind of each token.
+     */
+    private byte[] kinds;
+    /**
+     * The hash table. Each slot holds a token index plus one, or zero if the
+     * slot is empty.
+     */
+    private final int[] table;
+    /**
+     * The amount of indexed flags.
+     */
+    private int count;
+
+    private FlagIndex(int capacity) {
+        this.table = new int[capacity];
+    }
+
+    /**
+     * Builds an index of the flags in the given tokens.
+     *
+     * @param tokens the tokens to index
+     * @param kinds the kind of each token
+     * @param flagCount the amount of flags in the tokens
+     * @return an index of the flags, or {@code null} if there are none
+     */
+    static FlagIndex build(Tokens tokens, byte[] kinds, int flagCount) {
+        return build(null, tokens, kinds, flagCount);
+    }
+
+    /**
+     * Builds an index of the flags in the given tokens, reusing the table of
+     * the given index if it is large enough.
+     *
+     * @param reuse a previously built index to reuse, or {@code null}
+     * @param tokens the tokens to index
+     * @param kinds the kind of each token
+     * @param flagCount the amount of flags in the tokens
+     * @return an index of the flags, which is {@code null} if there are none
+     *         and there was no index to reuse
+     */
+    static FlagIndex build(FlagIndex reuse, Tokens tokens, byte[] kinds,
+            int flagCount) {
+        FlagIndex index;
+        if (reuse != null && reuse.table.length >= flagCount * 2) {
+            index = reuse;
+            if (index.count > 0) {
+                Arrays.fill(index.table, 0);
+            }
+        } else if (flagCount == 0) {
+            return reuse;
+        } else {
+            index = new FlagIndex(
+                    Integer.highestOneBit(flagCount * 2 - 1) << 1);
+        }
+        index.tokens = tokens;
+        index.kinds = kinds;
+        index.count = 0;
+        if (flagCount == 0) {
+            return index;
+        }
+
+        int size = tokens.size();
+        for (int i = 0; i < size; i++) {
+            byte kind = kinds[i];
+            if (kind == Arguments.VALUE_FLAG
+                    || kind == Arguments.NON_VALUE_FLAG) {
+                index.insert(i, kind);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Finds the first flag of the given kind with the given name, ignoring
+     * case.
+     *
+     * @param kind the kind of flag to find
+     * @param name the name of the flag
+     * @return the token index of the flag, or -1 if there isn't one
+     */
+    int find(byte kind, String name) {
+        if (count == 0) {
+            return -1;
+        }
+        int mask = table.length - 1;
+        int slot = mix(hash(name), kind) & mask;
+        int entry;
+        while ((entry = table[slot]) != 0) {
+            int token = entry - 1;
+            if (kinds[token] == kind && tokens.regionEqualsIgnoreCase(token,
+                    nameOffset(token), name)) {
+                return token;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insert(int token, byte kind) {
+        int mask = table.length - 1;
+        int slot = mix(tokens.foldedHash(token, nameOffset(token)), kind)
+                & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = token + 1;
+        count++;
+    }
+
+    private int nameOffset(int token) {
+        return tokens.charAt(token, 1) == '-' ? 2 : 1;
+    }
+
+    /**
+     * Computes the case-folded hash of the given name.
+     *
+     * @param name the name to hash
+     * @return the case-folded hash
+     */
+    static int hash(String name) {
+        return hash(name, 0);
+    }
+
+    /**
+     * Computes the case-folded hash of the given name, starting from the
+     * given offset.
+     *
+     * @param name the name to hash
+     * @param offset the index in the name to start hashing from
+     * @return the case-folded hash of the rest of the name
+     */
+    static int hash(String name, int offset) {
+        int hash = 0;
+        for (int i = offset; i < name.length(); i++) {
+            hash = 31 * hash + fold(name.charAt(i));
+        }
+        return hash;
+    }
+
+    /**
+     * Folds the case of the given character, such that two characters are
+     * equal ignoring case as per {@link String#equalsIgnoreCase(String)} if
+     * and only if their folded forms are equal.
+     *
+     * @param ch the character to fold
+     * @return the folded character
+     */
+    static char fold(char ch) {
+        if (ch < 0x80) {
+            return ch >= 'A' && ch <= 'Z' ? (char) (ch + ('a' - 'A')) : ch;
+        }
+        return Character.toLowerCase(Character.toUpperCase(ch));
+    }
+
+    private static int mix(int hash, byte kind) {
+        int h = hash * 0x9E3779B9 + kind;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pw.ollie.args;
+
+import pw.ollie.args.params.Params;
+import pw.ollie.args.params.ParamsBase;
+
+import java.util.Arrays;
+
+/**
+ * Parses a command line which is being edited, such as one being typed, by
+ * re-tokenizing only the tokens affected by each edit.
+ *
+ * Tokenization follows the rules of {@link Arguments#parse(CharSequence)}.
+ * After each edit, tokenizing restarts at the first token touched by the edit
+ * and stops as soon as it reaches a token boundary which existed before the
+ * edit, after which the old tokens are kept. Snapshots store their tokens,
+ * already classified, in chunks which are shared between successive {@link
+ * Arguments} snapshots, and an edit only rebuilds and reclassifies the chunks
+ * it touches, so the cost of an edit doesn't grow with the length of the
+ * line. The {@link Argument} and {@link Flag} objects of unchanged tokens are
+ * shared too, and if a {@link ParamsBase} is given, parameters are updated
+ * with {@link ParamsBase#updateParams(Arguments, Params)} so that unchanged
+ * parameters can be kept.
+ *
+ * This class is not thread-safe, though the {@link Arguments} snapshots it
+ * returns may be used by any thread.
+ */
+public final class IncrementalParser {
+    /**
+     * The base to create parameters with, or {@code null}.
+     */
+    private final ParamsBase base;
+    /**
+     * The current command line.
+     */
+    private final StringBuilder text;
+    /**
+     * Tokenizer reading single tokens from {@link #text}.
+     */
+    private final LineTokenizer tokenizer;
+
+    /**
+     * The index in {@link #text} of the first character of each token.
+     */
+    private int[] rawStarts;
+    /**
+     * The index in {@link #text} after the last character of each token.
+     */
+    private int[] rawEnds;
+    /**
+     * The amount of tokens.
+     */
+    private int count;
+
+    // scratch space for tokens read during an edit
+    private int[] newStarts = new int[4];
+    private int[] newEnds = new int[4];
+    private boolean[] newLiterals = new boolean[4];
+    private Argument[] newArguments = new Argument[4];
+
+    /**
+     * The tokens of the latest snapshot.
+     */
+    private IncrementalTokens tokens;
+    /**
+     * The latest snapshot.
+     */
+    private Arguments current;
+
+    /**
+     * Creates a new {@link IncrementalParser} with an empty command line and
+     * no parameters.
+     */
+    public IncrementalParser() {
+        this(null);
+    }
+
+    /**
+     * Creates a new {@link IncrementalParser} with an empty command line,
+     * creating {@link Params} for each snapshot with the given base.
+     *
+     * @param base the base to create parameters with, or {@code null}
+     */
+    public IncrementalParser(ParamsBase base) {
+        this.base = base;
+        this.text = new StringBuilder();
+        this.tokenizer = new LineTokenizer(text);
+        this.rawStarts = new int[8];
+        this.rawEnds = new int[8];
+        this.tokens = IncrementalTokens.EMPTY;
+        snapshot(0, 0, 0);
+    }
+
+    /**
+     * Gets the {@link Arguments} for the current command line.
+     *
+     * @return the latest snapshot
+     */
+    public Arguments getArguments() {
+        return current;
+    }
+
+    /**
+     * Gets the current command line.
+     *
+     * @return the current command line
+     */
+    public String getText() {
+        return text.toString();
+    }
+
+    /**
+     * Gets the length of the current command line.
+     *
+     * @return the length of the current command line
+     */
+    public int length() {
+        return text.length();
+    }
+
+    /**
+     * Appends the given characters to the command line.
+     *
+     * @param appended the characters to append
+     * @return the {@link Arguments} for the edited command line
+     */
+    public Arguments append(CharSequence appended) {
+        return replace(text.length(), text.length(), appended);
+    }
+
+    /**
+     * Deletes the given range of the command line.
+     *
+     * @param start the index of the first character to delete
+     * @param end the index after the last character to delete
+     * @return the {@link Arguments} for the edited command line
+     */
+    public Arguments delete(int start, int end) {
+        return replace(start, end, "");
+    }
+
+    /**
+     * Replaces the given range of the command line with the given characters.
+     *
+     * @param start the index of the first character to replace
+     * @param end the index after the last character to replace
+     * @param replacement the characters to insert in place of the range
+     * @return the {@link Arguments} for the edited command line
+     * @throws IndexOutOfBoundsException if the range is invalid
+     */
+    public Arguments replace(int start, int end, CharSequence replacement) {
+        if (start < 0 || end < start || end > text.length()) {
+            throw new IndexOutOfBoundsException("Range: " + start + "-" + end
+                    + ", Length: " + text.length());
+        }
+        int inserted = replacement.length();
+        int delta = inserted - (end - start);
+
+        // the first token touched by the edit - one ending right at the start
+        // of the edit may be extended by it
+        int first = firstEndingAtOrAfter(start);
+        int i = first < count ? Math.min(rawStarts[first], start) : start;
+
+        text.delete(start, end).insert(start, replacement);
+
+        int editEnd = start + inserted;
+        int resume = first;
+        int read = 0;
+        while ((i = tokenizer.skipWhitespace(i)) < text.length()) {
+            if (i >= editEnd) {
+                // past the edit - stop if an old token starts here
+                while (resume < count && (rawStarts[resume] < end
+                        || rawStarts[resume] + delta < i)) {
+                    resume++;
+                }
+                if (resume < count && rawStarts[resume] + delta == i) {
+                    break;
+                }
+            }
+            int tokenEnd = tokenizer.readToken(i);
+            addNew(read++, i, tokenEnd, first);
+            i = tokenEnd;
+        }
+        if (i >= text.length()) {
+            resume = count;
+        }
+
+        splice(first, read, resume, delta);
+        return snapshot(first, resume - first, read);
+    }
+
+    private void addNew(int index, int start, int end, int first) {
+        if (index == newStarts.length) {
+            int capacity = index * 2;
+            newStarts = Arrays.copyOf(newStarts, capacity);
+            newEnds = Arrays.copyOf(newEnds, capacity);
+            newLiterals = Arrays.copyOf(newLiterals, capacity);
+            newArguments = Arrays.copyOf(newArguments, capacity);
+        }
+        String value = tokenizer.token();
+        boolean literal = tokenizer.isLiteral();
+        tokenizer.discardUnescaped();
+
+        // tokens next to an edit are often re-read unchanged
+        int old = first + index;
+        Argument argument;
+        if (old < count && tokens.literal(old) == literal
+                && tokens.argument(old).get().equals(value)) {
+            argument = tokens.argument(old);
+        } else {
+            argument = new Argument(value);
+        }
+
+        newStarts[index] = start;
+        newEnds[index] = end;
+        newLiterals[index] = literal;
+        newArguments[index] = argument;
+    }
+
+    /**
+     * Replaces the positions of tokens from {@code first} up to {@code resume}
+     * with those of the tokens read during the edit, shifting the tokens after
+     * them by {@code delta}.
+     */
+    private void splice(int first, int read, int resume, int delta) {
+        int tail = count - resume;
+        int total = first + read + tail;
+        if (total > rawStarts.length) {
+            int capacity = Math.max(total, rawStarts.length * 2);
+            rawStarts = Arrays.copyOf(rawStarts, capacity);
+            rawEnds = Arrays.copyOf(rawEnds, capacity);
+        }
+
+        int to = first + read;
+        System.arraycopy(rawStarts, resume, rawStarts, to, tail);
+        System.arraycopy(rawEnds, resume, rawEnds, to, tail);
+        if (delta != 0) {
+            for (int t = to; t < total; t++) {
+                rawStarts[t] += delta;
+                rawEnds[t] += delta;
+            }
+        }
+
+        System.arraycopy(newStarts, 0, rawStarts, first, read);
+        System.arraycopy(newEnds, 0, rawEnds, first, read);
+        count = total;
+    }
+
+    private int firstEndingAtOrAfter(int index) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (rawEnds[middle] < index) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Creates the snapshot for an edit which replaced {@code removed} tokens
+     * from {@code first} with {@code read} new tokens.
+     */
+    private Arguments snapshot(int first, int removed, int read) {
+        tokens = tokens.edit(first, removed, newArguments, newLiterals, read);
+        Arrays.fill(newArguments, 0, read, null);
+
+        Arguments result = new Arguments(tokens);
+        if (base != null) {
+            Params previous = current == null ? null : current.getParams();
+            result.withParams(base.updateParams(result, previous));
+        }
+        current = result;
+        return result;
+    }
+}
@@ -0,0 +1,487 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pw.ollie.args;
+
+import java.util.Arrays;
+
+/**
+ * {@link Tokens} for a snapshot of an {@link IncrementalParser}. Tokens are
+ * kept, already classified, in chunks of up to {@link #CHUNK_SIZE} tokens
+ * which are shared between snapshots, so an edit only rebuilds the chunks it
+ * touches and the table of chunks. Each chunk records its own positional
+ * tokens and flags, so a snapshot is never classified or indexed as a whole.
+ */
+final class IncrementalTokens extends Tokens {
+    /**
+     * The most tokens a chunk is built with.
+     */
+    static final int CHUNK_SIZE = 64;
+    /**
+     * The tokens of an empty command line.
+     */
+    static final IncrementalTokens EMPTY = new IncrementalTokens(new Chunk[0],
+            null, 0);
+
+    /**
+     * The chunks of tokens, in order.
+     */
+    private final Chunk[] chunks;
+    /**
+     * The index of the first token of each chunk, followed by the amount of
+     * tokens.
+     */
+    private final int[] starts;
+    /**
+     * The amount of positional tokens before each chunk, followed by the
+     * amount of positional tokens.
+     */
+    private final int[] positionalStarts;
+    /**
+     * The amount of flags.
+     */
+    private final int flagCount;
+    /**
+     * The chunks of the tokens these tokens were edited from, used only to
+     * recognise them, or {@code null}.
+     */
+    private final Chunk[] editedFrom;
+    /**
+     * The amount of positional tokens at the start which are the same as in
+     * the tokens these tokens were edited from.
+     */
+    private final int unchanged;
+
+    private IncrementalTokens(Chunk[] chunks, Chunk[] editedFrom,
+            int unchanged) {
+        this.chunks = chunks;
+        this.editedFrom = editedFrom;
+        this.unchanged = unchanged;
+        this.starts = new int[chunks.length + 1];
+        this.positionalStarts = new int[chunks.length + 1];
+        int flags = 0;
+        for (int c = 0; c < chunks.length; c++) {
+            Chunk chunk = chunks[c];
+            starts[c + 1] = starts[c] + chunk.arguments.length;
+            positionalStarts[c + 1] = positionalStarts[c]
+                    + chunk.positional.length;
+            flags += chunk.flagTokens.length;
+        }
+        this.flagCount = flags;
+    }
+
+    @Override
+    int size() {
+        return starts[chunks.length];
+    }
+
+    @Override
+    int length(int token) {
+        return argument(token).get().length();
+    }
+
+    @Override
+    char charAt(int token, int index) {
+        return argument(token).get().charAt(index);
+    }
+
+    @Override
+    String string(int token) {
+        return argument(token).get();
+    }
+
+    @Override
+    Argument argument(int token) {
+        int c = chunkOf(token);
+        return chunks[c].arguments[token - starts[c]];
+    }
+
+    @Override
+    CharSequence source(int token) {
+        return argument(token).get();
+    }
+
+    @Override
+    Flag flag(int token, Argument value) {
+        int c = chunkOf(token);
+        Flag flag = chunks[c].flags[token - starts[c]];
+        return flag != null && flag.getValue() == value ? flag
+                : super.flag(token, value);
+    }
+
+    /**
+     * Gets the kind of the given token.
+     *
+     * @param token the index of the token
+     * @return the kind of the token
+     */
+    byte kind(int token) {
+        int c = chunkOf(token);
+        return chunks[c].kinds[token - starts[c]];
+    }
+
+    /**
+     * Checks whether the given token began with a quote or escape.
+     *
+     * @param token the index of the token
+     * @return whether the token is literal
+     */
+    boolean literal(int token) {
+        int c = chunkOf(token);
+        return chunks[c].literals[token - starts[c]];
+    }
+
+    /**
+     * Gets the amount of tokens which aren't part of a flag.
+     *
+     * @return the amount of positional tokens
+     */
+    int positionalCount() {
+        return positionalStarts[chunks.length];
+    }
+
+    /**
+     * Gets the token index of the given positional token.
+     *
+     * @param index the index of the positional token
+     * @return the token's index among all tokens
+     */
+    int positional(int index) {
+        int c = search(positionalStarts, index);
+        return starts[c] + chunks[c].positional[index - positionalStarts[c]];
+    }
+
+    /**
+     * Finds the first flag of the given kind with the given name, ignoring
+     * case.
+     *
+     * @param kind the kind of flag to find
+     * @param name the name of the flag
+     * @return the token index of the flag, or -1 if there isn't one
+     */
+    int findFlag(byte kind, String name) {
+        if (flagCount == 0) {
+            return -1;
+        }
+        int hash = FlagIndex.hash(name);
+        for (int c = 0; c < chunks.length; c++) {
+            Chunk chunk = chunks[c];
+            for (int f = 0; f < chunk.flagTokens.length; f++) {
+                int local = chunk.flagTokens[f];
+                if (chunk.flagHashes[f] == hash && chunk.kinds[local] == kind
+                        && chunk.nameEquals(local, name)) {
+                    return starts[c] + local;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the amount of positional tokens at the start of these tokens which
+     * are known to be the same {@link Argument} objects as in the given
+     * tokens.
+     *
+     * @param previous the tokens these tokens may have been edited from
+     * @return the amount of shared leading positional tokens, which is zero
+     *         unless these tokens were edited from the given tokens
+     */
+    int unchangedSince(IncrementalTokens previous) {
+        return previous.chunks == editedFrom ? unchanged : 0;
+    }
+
+    /**
+     * Creates the tokens resulting from an edit which replaced the given range
+     * of these tokens with the given new tokens. Only the chunks holding the
+     * replaced tokens and the token before them, whose kind depends on what
+     * follows it, are rebuilt, together with any following chunks whose
+     * tokens are classified differently as a result.
+     *
+     * @param first the index of the first replaced token
+     * @param removed the amount of replaced tokens
+     * @param inserted the new tokens
+     * @param literals whether each new token began with a quote or escape
+     * @param read the amount of new tokens
+     * @return the edited tokens
+     */
+    IncrementalTokens edit(int first, int removed, Argument[] inserted,
+            boolean[] literals, int read) {
+        Edit edit = new Edit(first, removed, inserted, literals, read);
+        int from = first == 0 ? 0 : chunkOf(first - 1);
+        int to = first + removed < size() ? chunkOf(first + removed) + 1
+                : chunks.length;
+        // merge small chunks into their neighbours
+        while (starts[to] - starts[from] + edit.shift < CHUNK_SIZE / 2
+                && (from > 0 || to < chunks.length)) {
+            if (to < chunks.length) {
+                to++;
+            } else {
+                from--;
+            }
+        }
+
+        int start = starts[from];
+        int end = starts[to] + edit.shift;
+        TokenClassifier classifier = new TokenClassifier(end - start);
+        classifier.expectValue(start > 0
+                && kind(start - 1) == Arguments.VALUE_FLAG);
+        edit.classify(classifier, start, end);
+        // past the rebuilt chunks, tokens are classified as before as soon as
+        // the classifier is in the state it was in before the edit
+        while (to < chunks.length && classifier.isExpectingValue()
+                != (kind(starts[to] - 1) == Arguments.VALUE_FLAG)) {
+            int next = end + chunks[to++].arguments.length;
+            edit.classify(classifier, end, next);
+            end = next;
+        }
+        if (to == chunks.length) {
+            classifier.finish();
+        }
+
+        int length = end - start;
+        int pieces = (length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        Chunk[] result = new Chunk[chunks.length - (to - from) + pieces];
+        System.arraycopy(chunks, 0, result, 0, from);
+        int offset = 0;
+        for (int p = 0; p < pieces; p++) {
+            int size = length / pieces + (p < length % pieces ? 1 : 0);
+            result[from + p] = edit.chunk(classifier.kinds, start, offset,
+                    size);
+            offset += size;
+        }
+        System.arraycopy(chunks, to, result, from + pieces,
+                chunks.length - to);
+        return new IncrementalTokens(result, chunks, positionalBefore(first));
+    }
+
+    /**
+     * Counts the positional tokens before the given token.
+     */
+    private int positionalBefore(int token) {
+        if (token == 0) {
+            return 0;
+        }
+        int c = chunkOf(token - 1);
+        int[] positional = chunks[c].positional;
+        int local = token - starts[c];
+        int count = 0;
+        while (count < positional.length && positional[count] < local) {
+            count++;
+        }
+        return positionalStarts[c] + count;
+    }
+
+    private int chunkOf(int token) {
+        return search(starts, token);
+    }
+
+    /**
+     * Finds the last chunk whose entry in the given table is at most the
+     * given index.
+     */
+    private int search(int[] table, int index) {
+        int low = 0;
+        int high = chunks.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (table[middle] <= index) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * An edit of the enclosing tokens, mapping token indices after the edit
+     * to the new tokens or to the tokens before the edit.
+     */
+    private final class Edit {
+        private final int first;
+        private final Argument[] inserted;
+        private final boolean[] literals;
+        private final int read;
+        /**
+         * The amount by which the indices of tokens after the edit change.
+         */
+        private final int shift;
+
+        Edit(int first, int removed, Argument[] inserted, boolean[] literals,
+                int read) {
+            this.first = first;
+            this.inserted = inserted;
+            this.literals = literals;
+            this.read = read;
+            this.shift = read - removed;
+        }
+
+        /**
+         * Gets the index before the edit of the given token, or -1 if it is a
+         * new token.
+         */
+        int old(int token) {
+            if (token < first) {
+                return token;
+            }
+            return token < first + read ? -1 : token - shift;
+        }
+
+        Argument argument(int token) {
+            int old = old(token);
+            return old < 0 ? inserted[token - first]
+                    : IncrementalTokens.this.argument(old);
+        }
+
+        boolean literal(int token) {
+            int old = old(token);
+            return old < 0 ? literals[token - first]
+                    : IncrementalTokens.this.literal(old);
+        }
+
+        void classify(TokenClassifier classifier, int start, int end) {
+            for (int t = start; t < end; t++) {
+                String value = argument(t).get();
+                int length = value.length();
+                classifier.add(length, length > 0 ? value.charAt(0) : 0,
+                        length > 1 ? value.charAt(1) : 0, literal(t));
+            }
+        }
+
+        /**
+         * Builds a chunk of the given amount of tokens, the first of which is
+         * the given offset from the start of the classified tokens.
+         */
+        Chunk chunk(byte[] classified, int start, int offset, int size) {
+            Argument[] arguments = new Argument[size];
+            boolean[] chunkLiterals = new boolean[size];
+            Flag[] flags = new Flag[size];
+            for (int i = 0; i < size; i++) {
+                int token = start + offset + i;
+                arguments[i] = argument(token);
+                chunkLiterals[i] = literal(token);
+                if (classified[offset + i] == Arguments.VALUE_FLAG) {
+                    flags[i] = flag(token, arguments[i]);
+                }
+            }
+            return new Chunk(arguments, chunkLiterals,
+                    Arrays.copyOfRange(classified, offset, offset + size),
+                    flags);
+        }
+
+        /**
+         * Gets the {@link Flag} for the given value flag, reusing the old one
+         * if its value is unchanged.
+         */
+        private Flag flag(int token, Argument name) {
+            Argument value = argument(token + 1);
+            int old = old(token);
+            if (old >= 0) {
+                int c = chunkOf(old);
+                Flag flag = chunks[c].flags[old - starts[c]];
+                if (flag != null && flag.getValue() == value) {
+                    return flag;
+                }
+            }
+            return new Flag(name.get().substring(1), value);
+        }
+    }
+
+    /**
+     * A run of classified tokens, which is never modified once built.
+     */
+    private static final class Chunk {
+        /**
+         * The {@link Argument} for each token.
+         */
+        final Argument[] arguments;
+        /**
+         * Whether each token began with a quote or escape.
+         */
+        final boolean[] literals;
+        /**
+         * The kind of each token.
+         */
+        final byte[] kinds;
+        /**
+         * The {@link Flag} for each token which is the name of a value flag.
+         */
+        final Flag[] flags;
+        /**
+         * Indices in this chunk of tokens which aren't part of a flag.
+         */
+        final int[] positional;
+        /**
+         * Indices in this chunk of tokens which are flag names.
+         */
+        final int[] flagTokens;
+        /**
+         * The case-folded hash of the name of each flag in {@link
+         * #flagTokens}.
+         */
+        final int[] flagHashes;
+
+        Chunk(Argument[] arguments, boolean[] literals, byte[] kinds,
+                Flag[] flags) {
+            this.arguments = arguments;
+            this.literals = literals;
+            this.kinds = kinds;
+            this.flags = flags;
+            int positionalCount = 0;
+            int flagCount = 0;
+            for (byte kind : kinds) {
+                if (kind == Arguments.ARGUMENT) {
+                    positionalCount++;
+                } else if (kind != Arguments.FLAG_VALUE) {
+                    flagCount++;
+                }
+            }
+            this.positional = new int[positionalCount];
+            this.flagTokens = new int[flagCount];
+            this.flagHashes = new int[flagCount];
+            positionalCount = 0;
+            flagCount = 0;
+            for (int i = 0; i < kinds.length; i++) {
+                if (kinds[i] == Arguments.ARGUMENT) {
+                    positional[positionalCount++] = i;
+                } else if (kinds[i] != Arguments.FLAG_VALUE) {
+                    String value = arguments[i].get();
+                    flagTokens[flagCount] = i;
+                    flagHashes[flagCount++] = FlagIndex.hash(value,
+                            nameOffset(value));
+                }
+            }
+        }
+
+        boolean nameEquals(int token, String name) {
+            String value = arguments[token].get();
+            int offset = nameOffset(value);
+            return value.length() - offset == name.length() && value
+                    .regionMatches(true, offset, name, 0, name.length());
+        }
+
+        private static int nameOffset(String flag) {
+            return flag.charAt(1) == '-' ? 2 : 1;
+        }
+    }
+}
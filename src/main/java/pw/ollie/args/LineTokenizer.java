@@ -0,0 +1,337 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pw.ollie.args;
+
+import java.util.Arrays;
+
+/**
+ * Splits a raw command line into tokens in a single pass, classifying flags as
+ * it goes.
+ *
+ * Tokens are separated by ASCII whitespace, so that characters and UTF-8 bytes
+ * are split in the same places; other Unicode spaces are part of tokens.
+ * Double quotes group characters including whitespace into one token, and
+ * inside them a backslash escapes the next character. Single quotes group
+ * characters with no escaping. Outside quotes a backslash escapes the next
+ * character. A token which begins with a quote or backslash is never treated
+ * as a flag.
+ *
+ * Tokens which are a plain region of the line are stored as offsets into it;
+ * only tokens with quotes or escapes in the middle of them have their
+ * characters copied.
+ */
+final class LineTokenizer {
+    /**
+     * The line being tokenized.
+     */
+    private CharSequence line;
+    /**
+     * Classifier for the tokens.
+     */
+    private final TokenClassifier classifier;
+    /**
+     * Unescaped characters for tokens which aren't a plain region of the line.
+     * Created when first needed.
+     */
+    private StringBuilder unescaped;
+    /**
+     * Token starts, see {@link SliceTokens}.
+     */
+    private int[] starts;
+    /**
+     * Token lengths.
+     */
+    private int[] lengths;
+    /**
+     * The amount of tokens read.
+     */
+    private int count;
+
+    // state for the token currently being read
+    private int start;
+    private int end;
+    private int length;
+    private boolean copied;
+    private char first;
+    private char second;
+    private boolean literal;
+
+    private LineTokenizer(CharSequence line, TokenClassifier classifier) {
+        this.line = line;
+        this.classifier = classifier;
+        this.starts = new int[8];
+        this.lengths = new int[8];
+    }
+
+    /**
+     * Creates a tokenizer which can be reused for many lines with {@link
+     * #tokenizeCompact(CharSequence)}, keeping its arrays as scratch space.
+     */
+    LineTokenizer() {
+        this(null, new TokenClassifier(8));
+    }
+
+    /**
+     * Creates a tokenizer for reading single tokens from the given line with
+     * {@link #readToken(int)}. The line may be modified between reads.
+     *
+     * @param line the line to read tokens from
+     */
+    LineTokenizer(CharSequence line) {
+        this(line, new TokenClassifier(0));
+    }
+
+    /**
+     * Tokenizes the given line using this tokenizer's arrays as scratch space,
+     * then copies the results into arrays of exactly the right size, so that
+     * this tokenizer can be reused.
+     *
+     * @param line the line to tokenize
+     * @return the resulting {@link Arguments}
+     */
+    Arguments tokenizeCompact(CharSequence line) {
+        this.line = line;
+        this.count = 0;
+        if (unescaped != null) {
+            unescaped.setLength(0);
+        }
+        classifier.reset(0);
+        run();
+        classifier.finish();
+
+        String copied = unescaped == null || unescaped.length() == 0 ? null
+                : unescaped.toString();
+        return new Arguments(new SliceTokens(line, copied,
+                Arrays.copyOf(starts, count), Arrays.copyOf(lengths, count),
+                count), classifier.copy());
+    }
+
+    /**
+     * Tokenizes the given line.
+     *
+     * @param line the line to tokenize
+     * @return the resulting {@link Arguments}
+     */
+    static Arguments tokenize(CharSequence line) {
+        LineTokenizer tokenizer = new LineTokenizer(line,
+                new TokenClassifier(8));
+        tokenizer.run();
+        tokenizer.classifier.finish();
+        String unescaped = tokenizer.unescaped == null ? null
+                : tokenizer.unescaped.toString();
+        return new Arguments(new SliceTokens(line, unescaped,
+                tokenizer.starts, tokenizer.lengths, tokenizer.count),
+                tokenizer.classifier);
+    }
+
+    /**
+     * Tokenizes the given UTF-8 encoded line. Every delimiter is ASCII and
+     * never appears inside a multi-byte UTF-8 sequence, so the bytes can be
+     * tokenized directly.
+     *
+     * @param line the line to tokenize
+     * @return the resulting {@link Arguments}
+     */
+    static Arguments tokenize(Utf8Bytes line) {
+        TokenClassifier classifier = new TokenClassifier(8);
+        Utf8Tokens tokens = tokenize(line, classifier);
+        classifier.finish();
+        return new Arguments(tokens, classifier);
+    }
+
+    /**
+     * Tokenizes the given UTF-8 encoded line, adding the tokens to the given
+     * classifier without finishing it, so that more tokens may follow.
+     *
+     * @param line the line to tokenize
+     * @param classifier the classifier to add the tokens to
+     * @return the tokens in the line
+     */
+    static Utf8Tokens tokenize(Utf8Bytes line, TokenClassifier classifier) {
+        LineTokenizer tokenizer = new LineTokenizer(line, classifier);
+        tokenizer.run();
+        Utf8Bytes unescaped = tokenizer.unescaped == null ? null
+                : Utf8Bytes.ofLatin1(tokenizer.unescaped);
+        return new Utf8Tokens(line, unescaped, tokenizer.starts,
+                tokenizer.lengths, tokenizer.count);
+    }
+
+    private void run() {
+        int i = 0;
+        while ((i = skipWhitespace(i)) < line.length()) {
+            i = readToken(i);
+            endToken();
+        }
+    }
+
+    /**
+     * Skips any whitespace from the given index.
+     *
+     * @param i the index to start from
+     * @return the index of the next non-whitespace character, or the length of
+     *         the line if there isn't one
+     */
+    int skipWhitespace(int i) {
+        final int len = line.length();
+        while (i < len && isSeparator(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Checks whether the given character separates tokens, which only ASCII
+     * whitespace does, as a byte line can't see multi-byte separators.
+     *
+     * @param ch the character to check
+     * @return whether the character is ASCII whitespace
+     */
+    static boolean isSeparator(char ch) {
+        return ch <= ' ' && Character.isWhitespace(ch);
+    }
+
+    /**
+     * Reads the token beginning at the given index, which must not be
+     * whitespace. Its value can then be obtained with {@link #token()}.
+     *
+     * @param i the index of the first character of the token
+     * @return the index after the last character of the token
+     */
+    int readToken(int i) {
+        final int len = line.length();
+        char firstRaw = line.charAt(i);
+        literal = firstRaw == '"' || firstRaw == '\'' || firstRaw == '\\';
+        length = 0;
+        copied = false;
+        first = second = 0;
+        start = end = i;
+
+        char quote = 0;
+        while (i < len) {
+            char ch = line.charAt(i);
+            if (quote == 0) {
+                if (isSeparator(ch)) {
+                    break;
+                }
+                if (ch == '"' || ch == '\'') {
+                    quote = ch;
+                    i++;
+                    continue;
+                }
+            } else if (ch == quote) {
+                quote = 0;
+                i++;
+                continue;
+            } else if (quote == '\'') {
+                append(ch, i++);
+                continue;
+            }
+
+            if (ch == '\\' && i + 1 < len) {
+                i++;
+                ch = line.charAt(i);
+            }
+            append(ch, i++);
+        }
+        return i;
+    }
+
+    /**
+     * Gets the value of the token last read by {@link #readToken(int)}.
+     *
+     * @return the token's value
+     */
+    String token() {
+        if (length == 0) {
+            return "";
+        }
+        if (copied) {
+            return unescaped.substring(~start, ~start + length);
+        }
+        return line.subSequence(start, start + length).toString();
+    }
+
+    /**
+     * Discards the unescaped characters of previously read tokens. Only for
+     * use when reading single tokens, after {@link #token()} has been called.
+     */
+    void discardUnescaped() {
+        if (unescaped != null) {
+            unescaped.setLength(0);
+        }
+    }
+
+    /**
+     * Gets whether the token last read by {@link #readToken(int)} began with a
+     * quote or escape, meaning it can't be a flag.
+     *
+     * @return whether the last token is literal
+     */
+    boolean isLiteral() {
+        return literal;
+    }
+
+    private void append(char ch, int pos) {
+        if (length == 0) {
+            first = ch;
+        } else if (length == 1) {
+            second = ch;
+        }
+        length++;
+
+        if (copied) {
+            unescaped.append(ch);
+            return;
+        }
+        if (length == 1) {
+            start = pos;
+            end = pos + 1;
+            return;
+        }
+        if (pos == end) {
+            end++;
+            return;
+        }
+
+        // no longer a plain region of the line, so copy what we have so far
+        if (unescaped == null) {
+            unescaped = new StringBuilder();
+        }
+        int copyStart = unescaped.length();
+        unescaped.append(line, start, end).append(ch);
+        start = ~copyStart;
+        copied = true;
+    }
+
+    private void endToken() {
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            lengths = Arrays.copyOf(lengths, count * 2);
+        }
+        starts[count] = length == 0 ? 0 : start;
+        lengths[count] = length;
+        count++;
+        classifier.add(length, first, second, literal);
+    }
+}
@@ -0,0 +1,441 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pw.ollie.args;
+
+/**
+ * Parses numbers directly from a region of a {@link CharSequence}, without
+ * creating a {@link String} for it. Results are the same as the equivalent
+ * {@link Long#parseLong(String)} and {@link Double#parseDouble(String)} calls.
+ *
+ * Integers are validated and converted eight ASCII digits at a time, with
+ * the digits packed into the bytes of a long (SWAR, SIMD within a register).
+ */
+final class Numbers {
+    /**
+     * Powers of ten which can be represented exactly as a double.
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    /**
+     * The largest integer for which all smaller integers can be represented
+     * exactly as a double.
+     */
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
+
+    /**
+     * The result of {@link #scanLong(CharSequence, int, int, long, long)} for
+     * invalid input.
+     */
+    static final long INVALID = Long.MIN_VALUE;
+    /**
+     * The digits of {@link Long#MIN_VALUE}.
+     */
+    private static final String MIN_LONG_DIGITS = "9223372036854775808";
+    /**
+     * The value of eight decimal digits.
+     */
+    private static final long EIGHT_DIGITS = 100_000_000L;
+
+    private Numbers() {
+    }
+
+    /**
+     * Parses a decimal integer in the given range from the given region.
+     *
+     * @param chars the characters to parse
+     * @param offset the index of the first character
+     * @param length the amount of characters
+     * @param min the minimum permitted value
+     * @param max the maximum permitted value
+     * @return the parsed value
+     * @throws NumberFormatException if the region isn't an integer in range
+     */
+    static long parseLong(CharSequence chars, int offset, int length,
+            long min, long max) {
+        long result = scanLong(chars, offset, length, min, max);
+        // the sentinel is only a real value if it is in range
+        if (result == INVALID && (min != Long.MIN_VALUE
+                || !isValid(result, chars, offset, length))) {
+            throw invalid(chars, offset, length);
+        }
+        return result;
+    }
+
+    /**
+     * Parses a decimal integer in the given range from the given region,
+     * without throwing an exception if it is invalid.
+     *
+     * {@link #INVALID} is returned if the region isn't an integer in range. As
+     * {@link #INVALID} is {@link Long#MIN_VALUE}, it can only be ambiguous if
+     * {@code min} is {@link Long#MIN_VALUE}, in which case {@link
+     * #isValid(long, CharSequence, int, int)} tells the two apart.
+     *
+     * @param chars the characters to parse
+     * @param offset the index of the first character
+     * @param length the amount of characters
+     * @param min the minimum permitted value
+     * @param max the maximum permitted value
+     * @return the parsed value, or {@link #INVALID}
+     */
+    static long scanLong(CharSequence chars, int offset, int length,
+            long min, long max) {
+        if (length == 0) {
+            return INVALID;
+        }
+        int i = offset;
+        int end = offset + length;
+        boolean negative = false;
+        char first = chars.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++i == end) {
+                return INVALID;
+            }
+        }
+
+        // accumulate negatively, as the negative range is larger
+        long limit = negative ? min : -max;
+        long result = 0;
+        if (end - i >= 8) {
+            long multiplyLimit = limit / EIGHT_DIGITS;
+            do {
+                long word = pack(chars, i);
+                if (word < 0) {
+                    // a non-ASCII character, which may still be a digit
+                    break;
+                }
+                if (!isEightDigits(word) || result < multiplyLimit) {
+                    return INVALID;
+                }
+                int value = eightDigits(word);
+                result *= EIGHT_DIGITS;
+                if (result < limit + value) {
+                    return INVALID;
+                }
+                result -= value;
+                i += 8;
+            } while (end - i >= 8);
+        }
+
+        long multiplyLimit = limit / 10;
+        while (i < end) {
+            int digit = digit(chars.charAt(i++));
+            if (digit < 0 || result < multiplyLimit) {
+                return INVALID;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return INVALID;
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * Packs the eight characters from the given index into the bytes of a
+     * long, the first character in the lowest byte.
+     *
+     * @return the packed characters, or -1 if any isn't ASCII
+     */
+    private static long pack(CharSequence chars, int index) {
+        long word = 0;
+        int all = 0;
+        for (int k = 0; k < 8; k++) {
+            char ch = chars.charAt(index + k);
+            all |= ch;
+            word |= (long) ch << (k << 3);
+        }
+        return all < 0x80 ? word : -1;
+    }
+
+    /**
+     * Checks whether every byte of the given packed ASCII characters is a
+     * decimal digit: each byte must be 0x3? and stay 0x3? when six is added.
+     */
+    private static boolean isEightDigits(long word) {
+        return ((word & 0xF0F0F0F0F0F0F0F0L)
+                | (((word + 0x0606060606060606L) & 0xF0F0F0F0F0F0F0F0L) >>> 4))
+                == 0x3333333333333333L;
+    }
+
+    /**
+     * Converts eight packed ASCII digits, the most significant in the lowest
+     * byte, to their value by combining adjacent pairs of digits, then pairs
+     * of pairs, then the two halves.
+     */
+    private static int eightDigits(long word) {
+        long value = word & 0x0F0F0F0F0F0F0F0FL;
+        value = (value * (10 << 8) + value) >>> 8;
+        value = ((value & 0x00FF00FF00FF00FFL) * (100 << 16)
+                + (value & 0x00FF00FF00FF00FFL)) >>> 16;
+        return (int) (((value & 0x0000FFFF0000FFFFL) * (10000L << 32)
+                + (value & 0x0000FFFF0000FFFFL)) >>> 32);
+    }
+
+    /**
+     * Checks whether a result of {@link #scanLong(CharSequence, int, int, long,
+     * long)} for the given region is valid. This only needs to be called if
+     * the result was {@link #INVALID} and the range included {@link
+     * Long#MIN_VALUE}.
+     *
+     * @param result the result of scanning the region
+     * @param chars the characters which were scanned
+     * @param offset the index of the first character
+     * @param length the amount of characters
+     * @return whether the result is a valid value
+     */
+    static boolean isValid(long result, CharSequence chars, int offset,
+            int length) {
+        if (result != INVALID) {
+            return true;
+        }
+        // the only valid input giving this result is Long.MIN_VALUE itself
+        if (length < 2 || chars.charAt(offset) != '-') {
+            return false;
+        }
+        int i = offset + 1;
+        int end = offset + length;
+        while (i < end - 1 && digit(chars.charAt(i)) == 0) {
+            i++;
+        }
+        if (end - i != MIN_LONG_DIGITS.length()) {
+            return false;
+        }
+        for (int j = 0; i < end; i++, j++) {
+            if (digit(chars.charAt(i)) != MIN_LONG_DIGITS.charAt(j) - '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses a double from the given region. Plain decimals with up to fifteen
+     * significant digits and a small exponent are converted directly, as both
+     * the digits and the power of ten are exact doubles and so a single
+     * multiplication or division is correctly rounded. Anything else is
+     * converted with {@link Double#parseDouble(String)}.
+     *
+     * @param chars the characters to parse
+     * @param offset the index of the first character
+     * @param length the amount of characters
+     * @return the parsed value
+     * @throws NumberFormatException if the region isn't a double
+     */
+    static double parseDouble(CharSequence chars, int offset, int length) {
+        int i = offset;
+        int end = offset + length;
+        boolean negative = false;
+        if (i < end && (chars.charAt(i) == '-' || chars.charAt(i) == '+')) {
+            negative = chars.charAt(i++) == '-';
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean point = false;
+        while (i < end) {
+            char ch = chars.charAt(i);
+            if (ch >= '0' && ch <= '9') {
+                if (mantissa >= MAX_EXACT_DOUBLE / 10) {
+                    return slowParseDouble(chars, offset, length);
+                }
+                mantissa = mantissa * 10 + (ch - '0');
+                digits++;
+                if (point) {
+                    exponent--;
+                }
+            } else if (ch == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+            i++;
+        }
+        if (digits == 0) {
+            return slowParseDouble(chars, offset, length);
+        }
+
+        if (i < end && (chars.charAt(i) == 'e' || chars.charAt(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (chars.charAt(i) == '-'
+                    || chars.charAt(i) == '+')) {
+                negativeExponent = chars.charAt(i++) == '-';
+            }
+            int exponentStart = i;
+            int explicit = 0;
+            while (i < end && chars.charAt(i) >= '0' && chars.charAt(i) <= '9'
+                    && explicit < 1000) {
+                explicit = explicit * 10 + (chars.charAt(i++) - '0');
+            }
+            if (i == exponentStart) {
+                return slowParseDouble(chars, offset, length);
+            }
+            exponent += negativeExponent ? -explicit : explicit;
+        }
+        if (i != end || exponent < -22 || exponent > 22) {
+            // suffixes, whitespace, huge exponents and so on
+            return slowParseDouble(chars, offset, length);
+        }
+
+        double value = (double) mantissa;
+        value = exponent < 0 ? value / POWERS_OF_TEN[-exponent]
+                : value * POWERS_OF_TEN[exponent];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Checks whether the given region can be parsed by {@link
+     * Double#parseDouble(String)}, and so also by {@link
+     * Float#parseFloat(String)}, without throwing an exception. This accepts
+     * the full grammar documented by {@link Double#valueOf(String)}.
+     *
+     * @param chars the characters to check
+     * @param offset the index of the first character
+     * @param length the amount of characters
+     * @return whether the region is a valid double
+     */
+    static boolean isDouble(CharSequence chars, int offset, int length) {
+        int i = offset;
+        int end = offset + length;
+        // leading and trailing whitespace is trimmed, as per String#trim
+        while (i < end && chars.charAt(i) <= ' ') {
+            i++;
+        }
+        while (end > i && chars.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (i < end && (chars.charAt(i) == '-' || chars.charAt(i) == '+')) {
+            i++;
+        }
+        if (i == end) {
+            return false;
+        }
+
+        char ch = chars.charAt(i);
+        if (ch == 'N') {
+            return matches(chars, i, end, "NaN");
+        }
+        if (ch == 'I') {
+            return matches(chars, i, end, "Infinity");
+        }
+
+        boolean hex = ch == '0' && i + 1 < end
+                && (chars.charAt(i + 1) == 'x' || chars.charAt(i + 1) == 'X');
+        if (hex) {
+            i += 2;
+        }
+
+        int digits = 0;
+        while (i < end && isDigit(chars.charAt(i), hex)) {
+            i++;
+            digits++;
+        }
+        if (i < end && chars.charAt(i) == '.') {
+            i++;
+            while (i < end && isDigit(chars.charAt(i), hex)) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+
+        // hex literals require a binary exponent, decimals may have one
+        char exponent = hex ? 'p' : 'e';
+        if (i < end && (chars.charAt(i) | 0x20) == exponent) {
+            i++;
+            if (i < end && (chars.charAt(i) == '-'
+                    || chars.charAt(i) == '+')) {
+                i++;
+            }
+            int exponentStart = i;
+            while (i < end && isDigit(chars.charAt(i), false)) {
+                i++;
+            }
+            if (i == exponentStart) {
+                return false;
+            }
+        } else if (hex) {
+            return false;
+        }
+
+        if (i < end && "fFdD".indexOf(chars.charAt(i)) >= 0) {
+            i++;
+        }
+        return i == end;
+    }
+
+    private static boolean isDigit(char ch, boolean hex) {
+        if (ch >= '0' && ch <= '9') {
+            return true;
+        }
+        ch |= 0x20;
+        return hex && ch >= 'a' && ch <= 'f';
+    }
+
+    private static boolean matches(CharSequence chars, int from, int to,
+            String expected) {
+        if (to - from != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (chars.charAt(from + i) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the decimal value of the given digit character, as per {@link
+     * Character#digit(char, int)}.
+     *
+     * @param ch the character
+     * @return the value of the digit, or -1 if it isn't a digit
+     */
+    static int digit(char ch) {
+        if (ch < 0x80) {
+            return ch >= '0' && ch <= '9' ? ch - '0' : -1;
+        }
+        return Character.digit(ch, 10);
+    }
+
+    private static double slowParseDouble(CharSequence chars, int offset,
+            int length) {
+        return Double.parseDouble(
+                chars.subSequence(offset, offset + length).toString());
+    }
+
+    private static NumberFormatException invalid(CharSequence chars,
+            int offset, int length) {
+        return new NumberFormatException("For input string: \""
+                + chars.subSequence(offset, offset + length) + "\"");
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pw.ollie.args;
+
+/**
+ * {@link Tokens} which are regions of a single command line. Tokens which had
+ * quotes or escapes removed while tokenizing are regions of a second buffer
+ * holding their unescaped characters instead.
+ */
+class SliceTokens extends Tokens {
+    /**
+     * The command line the tokens were read from.
+     */
+    private final CharSequence line;
+    /**
+     * The unescaped characters of tokens which aren't a plain region of
+     * {@link #line}.
+     */
+    private final CharSequence unescaped;
+    /**
+     * The start of each token. Negative values are the complement of an index
+     * into {@link #unescaped}.
+     */
+    private final int[] starts;
+    /**
+     * The length of each token.
+     */
+    private final int[] lengths;
+    /**
+     * The amount of tokens.
+     */
+    private final int size;
+
+    SliceTokens(CharSequence line, CharSequence unescaped, int[] starts,
+            int[] lengths, int size) {
+        this.line = line;
+        this.unescaped = unescaped;
+        this.starts = starts;
+        this.lengths = lengths;
+        this.size = size;
+    }
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    int length(int token) {
+        return lengths[token];
+    }
+
+    @Override
+    char charAt(int token, int index) {
+        int start = starts[token];
+        return start >= 0 ? line.charAt(start + index)
+                : unescaped.charAt(~start + index);
+    }
+
+    @Override
+    String string(int token) {
+        int start = starts[token];
+        if (start < 0) {
+            return unescaped.subSequence(~start, ~start + lengths[token])
+                    .toString();
+        }
+        return line.subSequence(start, start + lengths[token]).toString();
+    }
+
+    @Override
+    CharSequence source(int token) {
+        return starts[token] >= 0 ? line : unescaped;
+    }
+
+    @Override
+    int offset(int token) {
+        int start = starts[token];
+        return start >= 0 ? start : ~start;
+    }
+
+    @Override
+    Argument argument(int token) {
+        int start = starts[token];
+        if (start < 0) {
+            return new Argument(unescaped, ~start, lengths[token]);
+        }
+        return new Argument(line, start, lengths[token]);
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pw.ollie.args;
+
+/**
+ * A fixed size cache of canonical {@link String} instances, used instead of
+ * {@link String#intern()} by {@link Argument#getIntern()} and {@link
+ * Argument#toString()}. Unlike the JVM's string table, the cache never grows:
+ * each string maps to one slot of a table, and a string which isn't cached
+ * replaces whatever was in its slot. Frequently used strings, such as
+ * subcommand and flag names, stay cached while rarely used ones are evicted.
+ * Strings longer than the cache's maximum length are never cached, so the
+ * memory used by the cache is bounded.
+ *
+ * The cache doesn't lock. Strings are safely published by their final
+ * fields, so threads racing to use a slot can at worst evict each other's
+ * strings, in which case equal but not identical strings may be returned.
+ */
+public final class StringCache {
+    /**
+     * The number of slots in the default shared cache.
+     */
+    public static final int DEFAULT_SIZE = 1024;
+    /**
+     * The maximum length of strings cached by the default shared cache.
+     */
+    public static final int DEFAULT_MAX_LENGTH = 64;
+
+    /**
+     * The cache used by {@link Argument}s, or {@code null} if disabled.
+     */
+    private static volatile StringCache shared = new StringCache(DEFAULT_SIZE,
+            DEFAULT_MAX_LENGTH);
+
+    /**
+     * The cached strings, indexed by hash. Slots may be {@code null}.
+     */
+    private final String[] table;
+    /**
+     * {@code table.length - 1}, as the length is a power of two.
+     */
+    private final int mask;
+    /**
+     * The maximum length of cached strings.
+     */
+    private final int maxLength;
+
+    /**
+     * Creates a new StringCache with at least the given number of slots,
+     * which caches strings of up to the given length.
+     *
+     * @param size the minimum number of strings the cache can hold
+     * @param maxLength the maximum length of strings to cache
+     */
+    public StringCache(int size, int maxLength) {
+        if (size <= 0 || size > 1 << 30 || maxLength < 0) {
+            throw new IllegalArgumentException();
+        }
+        int capacity = Integer.highestOneBit(size);
+        if (capacity < size) {
+            capacity <<= 1;
+        }
+        this.table = new String[capacity];
+        this.mask = capacity - 1;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Gets the cache used by {@link Argument}s.
+     *
+     * @return the shared cache, or {@code null} if caching is disabled
+     */
+    public static StringCache getShared() {
+        return shared;
+    }
+
+    /**
+     * Sets the cache used by {@link Argument}s. If {@code null}, {@link
+     * Argument}s return their value without deduplicating it.
+     *
+     * @param cache the cache to use, or {@code null} to disable caching
+     */
+    public static void setShared(StringCache cache) {
+        shared = cache;
+    }
+
+    /**
+     * Gets the number of slots in this cache.
+     *
+     * @return the maximum number of strings this cache can hold
+     */
+    public int size() {
+        return table.length;
+    }
+
+    /**
+     * Gets the maximum length of strings cached by this cache.
+     *
+     * @return the maximum length of cached strings
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * Removes all strings from this cache.
+     */
+    public void clear() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = null;
+        }
+    }
+
+    /**
+     * Gets the canonical instance of the given string: the cached string
+     * equal to it if there is one, else the given string, which is cached if
+     * it isn't too long.
+     *
+     * @param string the string to get the canonical instance of
+     * @return a string equal to the given string
+     */
+    public String canonicalize(String string) {
+        int length = string.length();
+        if (length > maxLength) {
+            return string;
+        }
+        int index = index(string.hashCode());
+        String cached = table[index];
+        if (cached != null && cached.equals(string)) {
+            return cached;
+        }
+        table[index] = string;
+        return string;
+    }
+
+    /**
+     * Gets the canonical instance of the given region of characters, only
+     * creating a new {@link String} if it isn't cached.
+     *
+     * @param source the characters containing the string
+     * @param offset the index of the first character of the string
+     * @param length the length of the string
+     * @return a string equal to the given region, or {@code null} if it is
+     *         too long to be cached
+     */
+    String canonicalize(CharSequence source, int offset, int length) {
+        if (length > maxLength) {
+            return null;
+        }
+        int hash = 0;
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            // the same as String.hashCode()
+            hash = 31 * hash + source.charAt(i);
+        }
+        int index = index(hash);
+        String cached = table[index];
+        if (cached != null && cached.length() == length
+                && regionEquals(cached, source, offset)) {
+            return cached;
+        }
+        String result = source.subSequence(offset, end).toString();
+        table[index] = result;
+        return result;
+    }
+
+    private int index(int hash) {
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private static boolean regionEquals(String string, CharSequence source,
+            int offset) {
+        for (int i = 0; i < string.length(); i++) {
+            if (string.charAt(i) != source.charAt(offset + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pw.ollie.args;
+
+/**
+ * {@link Tokens} backed by a {@link String} array, one element per token.
+ */
+final class StringTokens extends Tokens {
+    /**
+     * The tokens.
+     */
+    private String[] raw;
+
+    StringTokens(String[] raw) {
+        this.raw = raw;
+    }
+
+    /**
+     * Replaces the tokens.
+     *
+     * @param raw the new tokens
+     */
+    void reset(String[] raw) {
+        this.raw = raw;
+    }
+
+    @Override
+    int size() {
+        return raw.length;
+    }
+
+    @Override
+    int length(int token) {
+        return raw[token].length();
+    }
+
+    @Override
+    char charAt(int token, int index) {
+        return raw[token].charAt(index);
+    }
+
+    @Override
+    String string(int token) {
+        return raw[token];
+    }
+
+    @Override
+    CharSequence source(int token) {
+        return raw[token];
+    }
+
+    @Override
+    Argument argument(int token) {
+        return new Argument(raw[token]);
+    }
+}
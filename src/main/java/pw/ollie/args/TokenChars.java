@@ -0,0 +1,79 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pw.ollie.args;
+
+/**
+ * A reusable {@link CharSequence} view of one token of some {@link Tokens},
+ * used to parse many tokens with {@link Numbers} without creating an object
+ * for each.
+ */
+final class TokenChars implements CharSequence {
+    /**
+     * The tokens being viewed.
+     */
+    private final Tokens tokens;
+    /**
+     * The index of the token currently viewed.
+     */
+    private int token;
+
+    TokenChars(Tokens tokens) {
+        this.tokens = tokens;
+    }
+
+    /**
+     * Changes the token viewed by this {@link TokenChars}.
+     *
+     * @param token the index of the token to view
+     * @return this {@link TokenChars}
+     */
+    TokenChars select(int token) {
+        this.token = token;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return tokens.length(token);
+    }
+
+    @Override
+    public char charAt(int index) {
+        return tokens.charAt(token, index);
+    }
+
+    @Override
+    public String subSequence(int start, int end) {
+        char[] chars = new char[end - start];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = charAt(start + i);
+        }
+        return new String(chars);
+    }
+
+    @Override
+    public String toString() {
+        return tokens.string(token);
+    }
+}
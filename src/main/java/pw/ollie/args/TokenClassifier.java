@@ -0,0 +1,210 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pw.ollie.args;
+
+import java.util.Arrays;
+
+/**
+ * Classifies tokens into normal arguments and flags as they are read, storing
+ * the results in primitive arrays for {@link Arguments}.
+ */
+final class TokenClassifier {
+    /**
+     * The kind of each token.
+     */
+    byte[] kinds;
+    /**
+     * Indices of tokens which aren't part of a flag.
+     */
+    int[] positional;
+    /**
+     * The amount of used elements in {@link #positional}.
+     */
+    int positionalCount;
+    /**
+     * The amount of flags classified so far.
+     */
+    int flagCount;
+    /**
+     * The amount of tokens classified so far.
+     */
+    int size;
+    /**
+     * Whether the next token is the value of a value flag.
+     */
+    private boolean expectingValue;
+
+    TokenClassifier(int capacity) {
+        this.kinds = new byte[capacity];
+        this.positional = new int[capacity];
+    }
+
+    /**
+     * Clears this classifier so it can be reused, keeping its arrays if they
+     * have at least the given capacity.
+     *
+     * @param capacity the expected amount of tokens
+     */
+    void reset(int capacity) {
+        if (kinds.length < capacity) {
+            kinds = new byte[capacity];
+            positional = new int[capacity];
+        }
+        size = 0;
+        positionalCount = 0;
+        flagCount = 0;
+        expectingValue = false;
+    }
+
+    /**
+     * Creates a copy of this classifier with arrays trimmed to the amount of
+     * tokens classified.
+     *
+     * @return a trimmed copy of this classifier
+     */
+    TokenClassifier copy() {
+        TokenClassifier copy = new TokenClassifier(0);
+        copy.kinds = Arrays.copyOf(kinds, size);
+        copy.positional = Arrays.copyOf(positional, positionalCount);
+        copy.positionalCount = positionalCount;
+        copy.flagCount = flagCount;
+        copy.size = size;
+        copy.expectingValue = expectingValue;
+        return copy;
+    }
+
+    /**
+     * Sets whether the next token is the value of a value flag, so that
+     * classification can continue from the middle of a line.
+     *
+     * @param expectingValue whether the token before the next is a value flag
+     */
+    void expectValue(boolean expectingValue) {
+        this.expectingValue = expectingValue;
+    }
+
+    /**
+     * Checks whether the next token would be the value of a value flag.
+     *
+     * @return whether the last token classified was a value flag
+     */
+    boolean isExpectingValue() {
+        return expectingValue;
+    }
+
+    /**
+     * Classifies the next token.
+     *
+     * @param length the length of the token
+     * @param first the first character of the token, if any
+     * @param second the second character of the token, if any
+     * @param literal whether the token was quoted or escaped, meaning it can't
+     *        be a flag
+     */
+    void add(int length, char first, char second, boolean literal) {
+        if (size == kinds.length) {
+            int capacity = Math.max(8, size * 2);
+            kinds = Arrays.copyOf(kinds, capacity);
+            positional = Arrays.copyOf(positional, capacity);
+        }
+        int token = size++;
+
+        if (expectingValue) {
+            kinds[token] = Arguments.FLAG_VALUE;
+            expectingValue = false;
+            return;
+        }
+
+        if (literal || length < 2 || first != '-') {
+            // normal argument, or flag with no name (e.g, "-")
+            kinds[token] = Arguments.ARGUMENT;
+            positional[positionalCount++] = token;
+            return;
+        }
+
+        if (second == '-') {
+            if (length < 3) {
+                // arg is "--" - no name given for flag
+                kinds[token] = Arguments.ARGUMENT;
+                positional[positionalCount++] = token;
+            } else {
+                // double flag (--, no value)
+                kinds[token] = Arguments.NON_VALUE_FLAG;
+                flagCount++;
+            }
+            return;
+        }
+
+        // single flag (-, value), unless it turns out to be the last token
+        kinds[token] = Arguments.VALUE_FLAG;
+        flagCount++;
+        expectingValue = true;
+    }
+
+    /**
+     * Finishes classification after the last token has been added.
+     */
+    void finish() {
+        if (expectingValue) {
+            // single flag but no value given (this is the last arg) so treat as a non-value flag
+            kinds[size - 1] = Arguments.NON_VALUE_FLAG;
+            expectingValue = false;
+        }
+    }
+
+    /**
+     * Classifies the given array of tokens.
+     *
+     * @param raw the tokens to classify
+     * @return the finished classifier
+     */
+    static TokenClassifier classify(String[] raw) {
+        TokenClassifier classifier = new TokenClassifier(raw.length);
+        classifier.addAll(raw);
+        return classifier;
+    }
+
+    /**
+     * Classifies all of the given tokens and finishes classification.
+     *
+     * @param raw the tokens to classify
+     */
+    void addAll(String[] raw) {
+        for (String element : raw) {
+            add(element);
+        }
+        finish();
+    }
+
+    /**
+     * Classifies the given token as the next token.
+     *
+     * @param element the token to classify
+     */
+    void add(String element) {
+        int length = element.length();
+        add(length, length > 0 ? element.charAt(0) : 0,
+                length > 1 ? element.charAt(1) : 0, false);
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pw.ollie.args;
+
+/**
+ * The tokens backing an {@link Arguments} object. Implementations give access
+ * to the characters of each token without requiring a {@link String} to be
+ * created for it.
+ */
+abstract class Tokens {
+    /**
+     * Gets the amount of tokens.
+     *
+     * @return the amount of tokens
+     */
+    abstract int size();
+
+    /**
+     * Gets the length of the given token.
+     *
+     * @param token the index of the token
+     * @return the amount of characters in the token
+     */
+    abstract int length(int token);
+
+    /**
+     * Gets a character of the given token.
+     *
+     * @param token the index of the token
+     * @param index the index of the character within the token
+     * @return the character at the given index of the token
+     */
+    abstract char charAt(int token, int index);
+
+    /**
+     * Gets the given token as a {@link String}.
+     *
+     * @param token the index of the token
+     * @return the token's value as a {@link String}
+     */
+    abstract String string(int token);
+
+    /**
+     * Creates a new {@link Argument} for the given token.
+     *
+     * @param token the index of the token
+     * @return a new {@link Argument} for the token
+     */
+    abstract Argument argument(int token);
+
+    /**
+     * Gets the {@link CharSequence} containing the given token, if the token
+     * is a region of one, so that it can be read without going through {@link
+     * #charAt(int, int)}. The token starts at {@link #offset(int)}.
+     *
+     * @param token the index of the token
+     * @return the characters containing the token, or {@code null}
+     */
+    CharSequence source(int token) {
+        return null;
+    }
+
+    /**
+     * Gets the index of the given token in its {@link #source(int)}.
+     *
+     * @param token the index of the token
+     * @return the index of the first character of the token in its source
+     */
+    int offset(int token) {
+        return 0;
+    }
+
+    /**
+     * Creates a {@link Flag} for the value flag whose name is the given token.
+     *
+     * @param token the index of the token containing the flag's name
+     * @param value the flag's value
+     * @return a {@link Flag} for the token
+     */
+    Flag flag(int token, Argument value) {
+        return new Flag(string(token).substring(1), value);
+    }
+
+    /**
+     * Computes the hash of the given token, starting from the given offset,
+     * with case folded. This is equal to {@link FlagIndex#hash(String)} of the
+     * same characters.
+     *
+     * @param token the index of the token
+     * @param offset the index in the token to start hashing from
+     * @return the case-folded hash of the rest of the token
+     */
+    int foldedHash(int token, int offset) {
+        int hash = 0;
+        int length = length(token);
+        for (int i = offset; i < length; i++) {
+            hash = 31 * hash + FlagIndex.fold(charAt(token, i));
+        }
+        return hash;
+    }
+
+    /**
+     * Checks whether the given token, starting from the given offset, is equal
+     * to the given name, ignoring case.
+     *
+     * @param token the index of the token
+     * @param offset the index in the token to start comparing from
+     * @param name the name to compare with
+     * @return whether the rest of the token is equal to the name
+     */
+    boolean regionEqualsIgnoreCase(int token, int offset, String name) {
+        int length = name.length();
+        if (length(token) - offset != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c1 = charAt(token, offset + i);
+            char c2 = name.charAt(i);
+            if (c1 != c2 && FlagIndex.fold(c1) != FlagIndex.fold(c2)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
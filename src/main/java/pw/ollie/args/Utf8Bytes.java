@@ -0,0 +1,95 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pw.ollie.args;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A byte-level {@link CharSequence} view of a region of UTF-8 encoded bytes.
+ * Each byte is one {@code char}, so indices and lengths are in bytes and
+ * non-ASCII characters appear as several {@code char}s. This allows ASCII
+ * structure, such as delimiters, flag prefixes and digits, to be read without
+ * decoding. {@link #toString()} decodes the bytes properly.
+ */
+final class Utf8Bytes implements CharSequence {
+    /**
+     * The buffer containing the bytes, only accessed with absolute indices.
+     */
+    private final ByteBuffer buffer;
+    /**
+     * The index in {@link #buffer} of the first byte.
+     */
+    private final int start;
+    /**
+     * The amount of bytes.
+     */
+    private final int length;
+
+    Utf8Bytes(ByteBuffer buffer, int start, int length) {
+        this.buffer = buffer;
+        this.start = start;
+        this.length = length;
+    }
+
+    /**
+     * Creates a {@link Utf8Bytes} with the bytes given as the {@code char}s of
+     * a byte-level {@link CharSequence}.
+     *
+     * @param bytes the bytes, one per {@code char}
+     * @return a new {@link Utf8Bytes} with the given bytes
+     */
+    static Utf8Bytes ofLatin1(CharSequence bytes) {
+        byte[] array = bytes.toString().getBytes(StandardCharsets.ISO_8859_1);
+        return new Utf8Bytes(ByteBuffer.wrap(array), 0, array.length);
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (buffer.get(start + index) & 0xFF);
+    }
+
+    @Override
+    public Utf8Bytes subSequence(int from, int to) {
+        return new Utf8Bytes(buffer, start + from, to - from);
+    }
+
+    @Override
+    public String toString() {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start,
+                    length, StandardCharsets.UTF_8);
+        }
+        byte[] copy = new byte[length];
+        for (int i = 0; i < length; i++) {
+            copy[i] = buffer.get(start + i);
+        }
+        return new String(copy, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pw.ollie.args;
+
+/**
+ * {@link SliceTokens} read from UTF-8 encoded bytes. Flag names containing
+ * non-ASCII characters are decoded before hashing or comparing, as their case
+ * can't be folded byte by byte.
+ */
+final class Utf8Tokens extends SliceTokens {
+    Utf8Tokens(Utf8Bytes line, Utf8Bytes unescaped, int[] starts,
+            int[] lengths, int size) {
+        super(line, unescaped, starts, lengths, size);
+    }
+
+    @Override
+    int foldedHash(int token, int offset) {
+        if (isAscii(token)) {
+            return super.foldedHash(token, offset);
+        }
+        return FlagIndex.hash(string(token).substring(offset));
+    }
+
+    @Override
+    boolean regionEqualsIgnoreCase(int token, int offset, String name) {
+        if (isAscii(token)) {
+            return super.regionEqualsIgnoreCase(token, offset, name);
+        }
+        String decoded = string(token);
+        return decoded.length() - offset == name.length() && decoded
+                .regionMatches(true, offset, name, 0, name.length());
+    }
+
+    private boolean isAscii(int token) {
+        int length = length(token);
+        for (int i = 0; i < length; i++) {
+            if (charAt(token, i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
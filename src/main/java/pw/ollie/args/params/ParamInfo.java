@@ -25,6 +25,8 @@ package pw.ollie.args.params;
 
 /**
  * Contains information about a parameter, which can be required or optional.
+ * A parameter may also be variadic, in which case it takes all remaining
+ * arguments as an array of numbers of its variadic type.
  */
 public class ParamInfo {
     /**
@@ -35,6 +37,11 @@ public class ParamInfo {
      * Whether this parameter is optional.
      */
     private final boolean optional;
+    /**
+     * The primitive type of the values of this parameter if it is variadic,
+     * else {@code null}.
+     */
+    private final Class<?> variadicType;
 
     /**
      * Constructs a new {@link ParamInfo} with the given name.
@@ -43,8 +50,28 @@ public class ParamInfo {
      * @param optional whether the parameter is optional
      */
     public ParamInfo(String name, boolean optional) {
+        this(name, optional, null);
+    }
+
+    /**
+     * Constructs a new {@link ParamInfo} with the given name, which is
+     * variadic if given a type.
+     *
+     * @param name the name of the parameter
+     * @param optional whether the parameter is optional
+     * @param variadicType {@code int.class}, {@code long.class} or {@code
+     *        double.class} for a variadic parameter, else {@code null}
+     * @throws IllegalArgumentException if the variadic type isn't supported
+     */
+    public ParamInfo(String name, boolean optional, Class<?> variadicType) {
+        if (variadicType != null && variadicType != int.class
+                && variadicType != long.class && variadicType != double.class) {
+            throw new IllegalArgumentException(
+                    "Unsupported variadic type: " + variadicType);
+        }
         this.name = name;
         this.optional = optional;
+        this.variadicType = variadicType;
     }
 
     /**
@@ -64,4 +91,25 @@ public class ParamInfo {
     public boolean isOptional() {
         return optional;
     }
+
+    /**
+     * Returns whether this parameter is variadic, taking all remaining
+     * arguments.
+     *
+     * @return {@code true} if the parameter is variadic, else {@code false}
+     */
+    public boolean isVariadic() {
+        return variadicType != null;
+    }
+
+    /**
+     * Gets the primitive type of the values of this parameter, if it is
+     * variadic.
+     *
+     * @return {@code int.class}, {@code long.class} or {@code double.class}
+     *         if this parameter is variadic, else {@code null}
+     */
+    public Class<?> getVariadicType() {
+        return variadicType;
+    }
 }
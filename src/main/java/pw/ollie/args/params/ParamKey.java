@@ -0,0 +1,90 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pw.ollie.args.params;
+
+/**
+ * A handle for a parameter of a {@link ParamsBase}, which can be used to get
+ * the parameter's value from {@link Params} created by that base without
+ * looking the parameter up by name. Handles are obtained once, for example
+ * when a command is registered, and reused for every execution.
+ */
+public final class ParamKey {
+    /**
+     * Information about the parameter.
+     */
+    private final ParamInfo info;
+    /**
+     * The index of the parameter's value in {@link Params} created by the
+     * parameter's base.
+     */
+    private final int slot;
+
+    /**
+     * Creates a new {@link ParamKey} for the parameter with the given
+     * information, whose value is in the given slot.
+     *
+     * @param info information about the parameter
+     * @param slot the index of the parameter's value
+     */
+    public ParamKey(ParamInfo info, int slot) {
+        if (info == null || slot < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.info = info;
+        this.slot = slot;
+    }
+
+    /**
+     * Gets the {@link ParamInfo} for the parameter.
+     *
+     * @return the parameter's {@link ParamInfo}
+     */
+    public ParamInfo getInfo() {
+        return info;
+    }
+
+    /**
+     * Gets the name of the parameter.
+     *
+     * @return the parameter's name
+     */
+    public String getName() {
+        return info.getName();
+    }
+
+    /**
+     * Gets the index of the parameter's value in {@link Params} created by
+     * the parameter's base.
+     *
+     * @return the parameter's slot
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    @Override
+    public String toString() {
+        return info.getName() + '#' + slot;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pw.ollie.args.params;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Selects the parameters a processor applies to, so that a {@link ParamsBase}
+ * can skip the processor for every other parameter without calling it. A
+ * selector is only tested when a processor is registered, so it must always
+ * give the same answer for the same {@link ParamInfo}.
+ */
+@FunctionalInterface
+public interface ParamSelector {
+    /**
+     * Checks whether the parameter with the given information is selected.
+     *
+     * @param info information about the parameter
+     * @return {@code true} if the parameter is selected, else {@code false}
+     */
+    boolean matches(ParamInfo info);
+
+    /**
+     * Gets a selector which selects every parameter.
+     *
+     * @return a selector for all parameters
+     */
+    static ParamSelector all() {
+        return info -> true;
+    }
+
+    /**
+     * Gets a selector which selects required parameters.
+     *
+     * @return a selector for required parameters
+     */
+    static ParamSelector required() {
+        return info -> !info.isOptional();
+    }
+
+    /**
+     * Gets a selector which selects optional parameters.
+     *
+     * @return a selector for optional parameters
+     */
+    static ParamSelector optional() {
+        return ParamInfo::isOptional;
+    }
+
+    /**
+     * Gets a selector which selects parameters with any of the given names.
+     *
+     * @param names the names of the parameters to select
+     * @return a selector for the named parameters
+     */
+    static ParamSelector named(String... names) {
+        if (names.length == 1) {
+            String name = names[0];
+            return info -> info.getName().equals(name);
+        }
+        Set<String> selected = new HashSet<>(Arrays.asList(names));
+        return info -> selected.contains(info.getName());
+    }
+}
@@ -46,6 +46,20 @@ public class Parameter extends Argument {
         this.info = info;
     }
 
+    /**
+     * Creates a new {@link Parameter}, using the given {@link String} argument
+     * as a raw string, which optionally memoizes its numeric values.
+     *
+     * @param arg the raw string for this {@link Parameter}
+     * @param info information about this parameter
+     * @param memoize whether to memoize numeric conversions
+     * @see Argument#Argument(String, boolean)
+     */
+    public Parameter(String arg, ParamInfo info, boolean memoize) {
+        super(arg, memoize);
+        this.info = info;
+    }
+
     /**
      * Gets the {@link ParamInfo} for this {@link Parameter}.
      *
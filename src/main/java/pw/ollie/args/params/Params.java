@@ -26,6 +26,7 @@ package pw.ollie.args.params;
 import pw.ollie.args.Arguments;
 
 import java.util.Collection;
+import java.util.function.BiConsumer;
 
 /**
  * Represents a map of named parameters to user-inputted values.
@@ -49,6 +50,32 @@ public interface Params {
      */
     Parameter get(String name);
 
+    /**
+     * Gets the {@link Parameter} value for the parameter with the given key,
+     * which must be from the {@link ParamsBase} these {@link Params} were
+     * created by. Implementations may use the key's slot to get the value
+     * without looking it up by name.
+     *
+     * @param key the key of the parameter to get the value for
+     * @return the {@link Parameter} for the given key, or {@code null}
+     */
+    default Parameter get(ParamKey key) {
+        return get(key.getName());
+    }
+
+    /**
+     * Returns whether the parameter with the given key has a user-specified
+     * value in this {@link Params} object.
+     *
+     * @param key the key of the parameter to check for the presence of
+     * @return {@code true} if the given parameter has a value, else {@code
+     *         false}
+     * @see #get(ParamKey)
+     */
+    default boolean has(ParamKey key) {
+        return has(key.getName());
+    }
+
     /**
      * Returns whether the given parameter has a user-specified value in this
      * {@link Params} object.
@@ -75,6 +102,19 @@ public interface Params {
      */
     Collection<Parameter> values();
 
+    /**
+     * Calls the given action for each parameter with a value and its {@link
+     * Parameter} value. Implementations may do so without creating any
+     * objects, and in the order the parameters were declared.
+     *
+     * @param action the action to call with each parameter and its value
+     */
+    default void forEach(BiConsumer<ParamInfo, Parameter> action) {
+        for (Parameter value : values()) {
+            action.accept(value.getInfo(), value);
+        }
+    }
+
     /**
      * Gets the {@link ParamsBase} which this {@link Params} object was built
      * from.
@@ -91,4 +131,41 @@ public interface Params {
      * @return {@code true} if these params are valid, else {@code false}
      */
     boolean valid();
+
+    /**
+     * Gets the values of the variadic int parameter with the given name.
+     * Variadic values are not available from {@link #get(String)}. The
+     * returned array belongs to these {@link Params} and must not be modified.
+     *
+     * @param name the name of the variadic parameter
+     * @return the parameter's values, or {@code null} if there is no such
+     *         parameter with values
+     */
+    default int[] getInts(String name) {
+        return null;
+    }
+
+    /**
+     * Gets the values of the variadic long parameter with the given name.
+     *
+     * @param name the name of the variadic parameter
+     * @return the parameter's values, or {@code null} if there is no such
+     *         parameter with values
+     * @see #getInts(String)
+     */
+    default long[] getLongs(String name) {
+        return null;
+    }
+
+    /**
+     * Gets the values of the variadic double parameter with the given name.
+     *
+     * @param name the name of the variadic parameter
+     * @return the parameter's values, or {@code null} if there is no such
+     *         parameter with values
+     * @see #getInts(String)
+     */
+    default double[] getDoubles(String name) {
+        return null;
+    }
 }
@@ -44,6 +44,23 @@ public interface ParamsBase {
      */
     Params createParams(Arguments args);
 
+    /**
+     * Creates a new {@link Params} object for the given {@link Arguments},
+     * which are an edited version of the {@link Arguments} the given previous
+     * {@link Params} were created from. Implementations may reuse parts of
+     * the previous {@link Params} which are unaffected by the edit, such as
+     * {@link Parameter} values for arguments which are the same object. The
+     * previous {@link Params} are not modified.
+     *
+     * @param args the {@link Arguments} to get parameter values from
+     * @param previous the {@link Params} created for the previous version of
+     *        the arguments by this base, or {@code null}
+     * @return a new {@link Params} object from this base and the given args
+     */
+    default Params updateParams(Arguments args, Params previous) {
+        return createParams(args);
+    }
+
     /**
      * Gets the total amount of parameters.
      *
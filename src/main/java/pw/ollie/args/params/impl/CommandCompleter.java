@@ -0,0 +1,316 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pw.ollie.args.params.impl;
+
+import pw.ollie.args.Arguments;
+import pw.ollie.args.params.ParamInfo;
+import pw.ollie.args.params.ParamKey;
+import pw.ollie.args.params.ParamSelector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Completes partially typed commands registered with a {@link
+ * CommandDispatcher}, such as for tab completion. Candidates are the next
+ * literal word, a flag name if the partial word starts with {@code -}, or a
+ * value of the parameter being typed from providers registered with {@link
+ * #registerValues(ParamSelector, Supplier, long, TimeUnit)}.
+ *
+ * Every source of candidates is an array sorted ignoring case, built once and
+ * then reused: the literal words and flags of each path in the dispatcher's
+ * trie, and the values of each provider until they expire. The candidates
+ * starting with the partial word are found by binary search, and merged in
+ * order until the requested amount is reached, so asking for the first few
+ * candidates doesn't sort or even visit the rest.
+ */
+public final class CommandCompleter {
+    /**
+     * The dispatcher with the commands to complete.
+     */
+    private final CommandDispatcher dispatcher;
+    /**
+     * The registered parameter value providers.
+     */
+    private final List<ValueProvider> providers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a new {@link CommandCompleter} for the commands registered with
+     * the given {@link CommandDispatcher}, including those registered later.
+     *
+     * @param dispatcher the dispatcher with the commands to complete
+     */
+    public CommandCompleter(CommandDispatcher dispatcher) {
+        if (dispatcher == null) {
+            throw new IllegalArgumentException();
+        }
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Registers a provider of values for the parameters selected by the given
+     * {@link ParamSelector}, such as the names of online players. The values
+     * are got from the provider when first needed, and then reused until the
+     * given time to live has passed, so the provider is called at most once
+     * for each period however often values are completed.
+     *
+     * @param selector the {@link ParamSelector} for the parameters to complete
+     * @param values the provider of the parameters' values
+     * @param ttl the time for which values are reused
+     * @param unit the unit of the time to live
+     */
+    public void registerValues(ParamSelector selector,
+            Supplier<? extends Collection<String>> values, long ttl,
+            TimeUnit unit) {
+        if (selector == null || values == null || ttl < 0 || unit == null) {
+            throw new IllegalArgumentException();
+        }
+        providers.add(new ValueProvider(selector, values, unit.toNanos(ttl)));
+    }
+
+    /**
+     * Gets all candidates to complete the last word of the given partial
+     * input, as per {@link #complete(String, String, int)}.
+     *
+     * @param label the command, with or without its {@code /} prefix
+     * @param input the partial input after the command
+     * @return the candidates, sorted ignoring case
+     */
+    public List<String> complete(String label, String input) {
+        return complete(label, input, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Gets the first candidates, sorted ignoring case, to complete the last
+     * word of the given partial input. The last word is everything after the
+     * last space, which is empty if the input ends with a space, and the
+     * candidates are those starting with it, ignoring case. The words before
+     * it are parsed as {@link Arguments} and routed to the command's bases as
+     * per {@link CommandDispatcher#dispatch(String, Arguments)}, to find the
+     * literal words, flags and parameter which could come next.
+     *
+     * @param label the command, with or without its {@code /} prefix
+     * @param input the partial input after the command
+     * @param limit the maximum amount of candidates
+     * @return at most {@code limit} candidates, sorted ignoring case
+     */
+    public List<String> complete(String label, String input, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException();
+        }
+        CommandDispatcher.Node node = dispatcher.root(label);
+        if (node == null || limit == 0) {
+            return Collections.emptyList();
+        }
+
+        int split = input.lastIndexOf(
+                SimpleParamsBase.ARGUMENT_SEPARATOR) + 1;
+        String word = input.substring(split);
+        Arguments completed = Arguments.parse(input.substring(0, split));
+        int length = completed.length(false);
+
+        // follow the literal words typed so far
+        CommandDispatcher.Node match = node;
+        int depth = 0;
+        for (; depth < length; depth++) {
+            CommandDispatcher.Node next = node.next(completed.get(depth,
+                    false));
+            if (next == null) {
+                break;
+            }
+            node = next;
+            if (node.bases.length != 0) {
+                match = node;
+            }
+        }
+
+        List<String[]> sources = new ArrayList<>();
+        if (depth == length) {
+            sources.add(node.words());
+        }
+        if (word.startsWith(CommandDispatcher.FLAG_PREFIX)) {
+            sources.add(match.flags());
+        } else {
+            SimpleParamsBase base = CommandDispatcher.choose(match.bases,
+                    completed);
+            ParamInfo param = base == null ? null
+                    : param(base, length - base.getArgsBeforeParams());
+            if (param != null) {
+                for (ValueProvider provider : providers) {
+                    if (provider.selector.matches(param)) {
+                        sources.add(provider.values());
+                    }
+                }
+            }
+        }
+        return merge(sources, word, limit);
+    }
+
+    /**
+     * Gets the parameter of the given base which takes the argument at the
+     * given index after the literal words.
+     *
+     * @return the parameter, or {@code null} if there is none
+     */
+    private static ParamInfo param(SimpleParamsBase base, int index) {
+        List<ParamKey> keys = base.keys();
+        ParamInfo variadic = base.getVariadic();
+        int fixed = keys.size() - (variadic == null ? 0 : 1);
+        if (index < 0) {
+            return null;
+        }
+        return index < fixed ? keys.get(index).getInfo() : variadic;
+    }
+
+    /**
+     * Merges the words starting with the given prefix from each of the given
+     * sorted arrays, in order and without duplicates, until the limit is
+     * reached.
+     */
+    private static List<String> merge(List<String[]> sources, String prefix,
+            int limit) {
+        int[] cursors = new int[sources.size()];
+        for (int i = 0; i < cursors.length; i++) {
+            cursors[i] = lowerBound(sources.get(i), prefix);
+        }
+
+        List<String> result = new ArrayList<>();
+        String last = null;
+        while (result.size() < limit) {
+            int best = -1;
+            String candidate = null;
+            for (int i = 0; i < cursors.length; i++) {
+                String[] source = sources.get(i);
+                if (cursors[i] < source.length
+                        && startsWith(source[cursors[i]], prefix)
+                        && (candidate == null || String.CASE_INSENSITIVE_ORDER
+                                .compare(source[cursors[i]], candidate) < 0)) {
+                    best = i;
+                    candidate = source[cursors[i]];
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            cursors[best]++;
+            if (!candidate.equals(last)) {
+                result.add(candidate);
+                last = candidate;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the index of the first word which isn't before the given prefix,
+     * ignoring case.
+     */
+    private static int lowerBound(String[] sorted, String prefix) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (String.CASE_INSENSITIVE_ORDER.compare(sorted[mid],
+                    prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static boolean startsWith(String word, String prefix) {
+        return word.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+
+    /**
+     * A registered provider of parameter values, with its cached values.
+     */
+    private static final class ValueProvider {
+        /**
+         * The selector for the parameters the values are for.
+         */
+        final ParamSelector selector;
+        /**
+         * The provider of the values.
+         */
+        private final Supplier<? extends Collection<String>> values;
+        /**
+         * The time for which values are reused, in nanoseconds.
+         */
+        private final long ttl;
+        /**
+         * The cached values, or {@code null} before they are first got.
+         */
+        private volatile Snapshot snapshot;
+
+        ValueProvider(ParamSelector selector,
+                Supplier<? extends Collection<String>> values, long ttl) {
+            this.selector = selector;
+            this.values = values;
+            this.ttl = ttl;
+        }
+
+        /**
+         * Gets the values, sorted ignoring case, getting them from the
+         * provider if the cached values have expired.
+         */
+        String[] values() {
+            Snapshot current = snapshot;
+            long now = System.nanoTime();
+            if (current == null || now - current.loaded >= ttl) {
+                String[] sorted = values.get().toArray(new String[0]);
+                Arrays.sort(sorted, String.CASE_INSENSITIVE_ORDER);
+                current = snapshot = new Snapshot(sorted, now);
+            }
+            return current.values;
+        }
+    }
+
+    /**
+     * The values of a {@link ValueProvider} at a point in time.
+     */
+    private static final class Snapshot {
+        /**
+         * The values, sorted ignoring case.
+         */
+        final String[] values;
+        /**
+         * The value of {@link System#nanoTime()} when the values were got.
+         */
+        final long loaded;
+
+        Snapshot(String[] values, long loaded) {
+            this.values = values;
+            this.loaded = loaded;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pw.ollie.args.params.impl;
+
+import pw.ollie.args.Argument;
+import pw.ollie.args.Arguments;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Routes {@link Arguments} to the {@link SimpleParamsBase} of the command
+ * they are for, among many registered commands and subcommands. The {@link
+ * SimpleParamsBase#getLiterals() literal words} of every registered usage
+ * string are compiled into a trie for each command, so routing looks up one
+ * argument for each literal word, whatever the amount of commands.
+ *
+ * For example, with {@code /team add <player>} and {@code /team list
+ * [page]} registered, the arguments {@code add Steve} with the label {@code
+ * team} are routed to the base of {@code /team add <player>}. Literal words
+ * are matched exactly, and the longest registered path of literal words
+ * which the arguments start with is chosen.
+ *
+ * Commands must all be registered before dispatching from several threads,
+ * as registering isn't thread-safe.
+ */
+public final class CommandDispatcher {
+    /**
+     * The prefix which is removed from commands and labels, if present.
+     */
+    private static final String COMMAND_PREFIX = "/";
+    /**
+     * The prefix of flags.
+     */
+    static final String FLAG_PREFIX = "-";
+
+    /**
+     * The root of the trie for each command, by command without its prefix.
+     */
+    private final Map<String, Node> commands = new HashMap<>();
+    /**
+     * The key for each distinct literal word, shared by every node with that
+     * word.
+     */
+    private final Map<String, Argument> literals = new HashMap<>();
+    /**
+     * The amount of registered bases.
+     */
+    private int size;
+
+    /**
+     * Registers the {@link SimpleParamsBase} for the given usage string, as
+     * per {@link SimpleParamsBase#fromUsageString(String)}.
+     *
+     * @param usageString the usage string of the command
+     * @return the registered {@link SimpleParamsBase}
+     */
+    public SimpleParamsBase register(String usageString) {
+        SimpleParamsBase base = SimpleParamsBase.fromUsageString(usageString);
+        register(base);
+        return base;
+    }
+
+    /**
+     * Registers the given {@link SimpleParamsBase} for its command and literal
+     * words. If several bases have the same command and literal words, the
+     * first one which {@link SimpleParamsBase#accepts(Arguments) accepts} the
+     * arguments is chosen, in order of registration.
+     *
+     * @param base the {@link SimpleParamsBase} to register
+     */
+    public void register(SimpleParamsBase base) {
+        Node node = commands.computeIfAbsent(label(base.getCommand()),
+                command -> new Node());
+        for (String literal : base.getLiterals()) {
+            node = node.child(literals.computeIfAbsent(literal,
+                    Argument::new));
+        }
+        node.bases = Arrays.copyOf(node.bases, node.bases.length + 1);
+        node.bases[node.bases.length - 1] = base;
+        node.flags = null;
+        size++;
+    }
+
+    /**
+     * Finds the {@link SimpleParamsBase} for the given arguments of the
+     * command with the given label. The positional arguments, not including
+     * flags, are matched against the literal words of the command's
+     * registered usage strings.
+     *
+     * @param label the command, with or without its {@code /} prefix
+     * @param args the arguments of the command
+     * @return the {@link SimpleParamsBase} for the arguments, which may not
+     *         accept them if no base for the command does, or {@code null} if
+     *         there is none
+     */
+    public SimpleParamsBase dispatch(String label, Arguments args) {
+        Node node = root(label);
+        if (node == null) {
+            return null;
+        }
+
+        Node match = node;
+        int length = args.length(false);
+        for (int i = 0; i < length && node.children != null; i++) {
+            node = node.children.get(args.get(i, false));
+            if (node == null) {
+                break;
+            }
+            if (node.bases.length != 0) {
+                match = node;
+            }
+        }
+        return choose(match.bases, args);
+    }
+
+    /**
+     * Chooses the base for the given arguments from the given bases, which
+     * have the same literal words.
+     */
+    static SimpleParamsBase choose(SimpleParamsBase[] bases, Arguments args) {
+        if (bases.length <= 1) {
+            return bases.length == 0 ? null : bases[0];
+        }
+        for (SimpleParamsBase base : bases) {
+            if (base.accepts(args)) {
+                return base;
+            }
+        }
+        return bases[0];
+    }
+
+    /**
+     * Finds the {@link SimpleParamsBase} for the given arguments of the
+     * command with the given label, as per {@link #dispatch(String,
+     * Arguments)}, and creates {@link SimpleParams} from it.
+     *
+     * @param label the command, with or without its {@code /} prefix
+     * @param args the arguments of the command
+     * @return new {@link SimpleParams} for the arguments, or {@code null} if
+     *         there is no {@link SimpleParamsBase} for them
+     */
+    public SimpleParams createParams(String label, Arguments args) {
+        SimpleParamsBase base = dispatch(label, args);
+        return base == null ? null : base.createParams(args);
+    }
+
+    /**
+     * Gets the root of the trie for the command with the given label.
+     *
+     * @return the root node, or {@code null} if there is no such command
+     */
+    Node root(String label) {
+        return commands.get(label(label));
+    }
+
+    /**
+     * Gets the amount of registered {@link SimpleParamsBase}s.
+     *
+     * @return the amount of registered bases
+     */
+    public int size() {
+        return size;
+    }
+
+    private static String label(String command) {
+        return command.startsWith(COMMAND_PREFIX)
+                ? command.substring(COMMAND_PREFIX.length()) : command;
+    }
+
+    /**
+     * A node of a command's trie, for a path of literal words.
+     */
+    static final class Node {
+        /**
+         * The bases of a node without any.
+         */
+        private static final SimpleParamsBase[] NO_BASES =
+                new SimpleParamsBase[0];
+
+        /**
+         * The nodes for each literal word after this node's path, or {@code
+         * null} if there are none.
+         */
+        Map<Argument, Node> children;
+        /**
+         * The bases registered with this node's path, in order of
+         * registration.
+         */
+        SimpleParamsBase[] bases = NO_BASES;
+        /**
+         * The literal words of {@link #children}, sorted ignoring case, or
+         * {@code null} if not yet sorted.
+         */
+        volatile String[] words;
+        /**
+         * The flags of {@link #bases}, with their prefix and sorted ignoring
+         * case, or {@code null} if not yet sorted.
+         */
+        volatile String[] flags;
+
+        Node child(Argument literal) {
+            if (children == null) {
+                children = new HashMap<>();
+            }
+            Node child = children.get(literal);
+            if (child == null) {
+                children.put(literal, child = new Node());
+                words = null;
+            }
+            return child;
+        }
+
+        /**
+         * Gets the node for the given argument, if it is a literal word after
+         * this node's path.
+         */
+        Node next(Argument argument) {
+            return children == null ? null : children.get(argument);
+        }
+
+        /**
+         * Gets the literal words after this node's path, sorted ignoring
+         * case.
+         */
+        String[] words() {
+            String[] sorted = words;
+            if (sorted == null) {
+                sorted = children == null ? new String[0] : children.keySet()
+                        .stream().map(Argument::get).toArray(String[]::new);
+                Arrays.sort(sorted, String.CASE_INSENSITIVE_ORDER);
+                words = sorted;
+            }
+            return sorted;
+        }
+
+        /**
+         * Gets the flags of the bases registered with this node's path, with
+         * their prefix, sorted ignoring case and without duplicates.
+         */
+        String[] flags() {
+            String[] sorted = flags;
+            if (sorted == null) {
+                sorted = Arrays.stream(bases)
+                        .flatMap(base -> base.getFlags().stream())
+                        .map(flag -> FLAG_PREFIX + flag).distinct()
+                        .sorted(String.CASE_INSENSITIVE_ORDER)
+                        .toArray(String[]::new);
+                flags = sorted;
+            }
+            return sorted;
+        }
+    }
+}
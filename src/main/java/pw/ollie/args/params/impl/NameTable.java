@@ -0,0 +1,186 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pw.ollie.args.params.impl;
+
+import pw.ollie.args.params.ParamInfo;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A perfect hash table from parameter names to their slots, built when a
+ * {@link SimpleParamsBase} is compiled. The table has a multiplier chosen so
+ * that no two names share an index, so a lookup is one multiplication, one
+ * array load and one {@link String#equals(Object)}. If no multiplier can be
+ * found, such as when two names have the same {@link String#hashCode()}, a
+ * {@link HashMap} is used instead.
+ */
+final class NameTable {
+    /**
+     * The name of the parameter in each slot.
+     */
+    private final String[] names;
+    /**
+     * For each index, one more than the slot of the name with that index, or
+     * zero.
+     */
+    private final int[] table;
+    /**
+     * The odd multiplier which spreads name hashes without collisions.
+     */
+    private final int multiplier;
+    /**
+     * The shift which takes the top bits of a multiplied hash as an index.
+     */
+    private final int shift;
+    /**
+     * Whether each slot is the one a lookup of its name finds, which is
+     * false for all but the last of several parameters with the same name.
+     */
+    private final boolean[] primary;
+    /**
+     * The slot of each name, if there is no perfect hash, else {@code null}.
+     */
+    private final Map<String, Integer> fallback;
+
+    /**
+     * The maximum amount of bits of a table index.
+     */
+    private static final int MAX_BITS = 20;
+
+    NameTable(List<ParamInfo> params) {
+        int size = params.size();
+        this.names = new String[size];
+        for (int i = 0; i < size; i++) {
+            names[i] = params.get(i).getName();
+        }
+
+        int bits = 1;
+        while (1 << bits < size * 2) {
+            bits++;
+        }
+        // a deterministic sequence of multipliers, as some will collide
+        long state = 0x9E3779B97F4A7C15L;
+        boolean separable = hashesDistinct();
+        while (separable && bits <= MAX_BITS) {
+            for (int attempt = 0; attempt < 64; attempt++) {
+                state = state * 6364136223846793005L + 1442695040888963407L;
+                int candidate = (int) (state >>> 32) | 1;
+                int[] result = build(candidate, 32 - bits, 1 << bits);
+                if (result != null) {
+                    this.table = result;
+                    this.multiplier = candidate;
+                    this.shift = 32 - bits;
+                    this.fallback = null;
+                    this.primary = new boolean[size];
+                    for (int slot : table) {
+                        if (slot > 0) {
+                            primary[slot - 1] = true;
+                        }
+                    }
+                    return;
+                }
+            }
+            // too crowded, so try a bigger table
+            bits++;
+        }
+
+        this.table = null;
+        this.multiplier = 0;
+        this.shift = 0;
+        this.fallback = new HashMap<>(size * 2);
+        this.primary = new boolean[size];
+        for (int slot = 0; slot < size; slot++) {
+            fallback.put(names[slot], slot);
+        }
+        for (int slot : fallback.values()) {
+            primary[slot] = true;
+        }
+    }
+
+    /**
+     * Gets the slot of the parameter with the given name.
+     *
+     * @param name the name of the parameter
+     * @return the parameter's slot, or -1 if there is no such parameter
+     */
+    int slot(String name) {
+        if (fallback != null) {
+            Integer slot = fallback.get(name);
+            return slot == null ? -1 : slot;
+        }
+        int slot = table[index(name.hashCode(), multiplier, shift)] - 1;
+        return slot >= 0 && names[slot].equals(name) ? slot : -1;
+    }
+
+    /**
+     * Checks whether a lookup of the name of the parameter in the given slot
+     * finds that slot.
+     *
+     * @param slot the slot of the parameter
+     * @return whether the slot is the one found for its name
+     */
+    boolean isPrimary(int slot) {
+        return primary[slot];
+    }
+
+    /**
+     * Builds the table for the given multiplier.
+     *
+     * @return the table, or {@code null} if two different names collide
+     */
+    private int[] build(int multiplier, int shift, int length) {
+        int[] result = new int[length];
+        for (int slot = 0; slot < names.length; slot++) {
+            int index = index(names[slot].hashCode(), multiplier, shift);
+            int existing = result[index] - 1;
+            if (existing >= 0 && !names[existing].equals(names[slot])) {
+                return null;
+            }
+            // a later parameter with the same name replaces an earlier one
+            result[index] = slot + 1;
+        }
+        return result;
+    }
+
+    /**
+     * Checks that different names have different hashes, without which no
+     * multiplier can separate them.
+     */
+    private boolean hashesDistinct() {
+        Map<Integer, String> byHash = new HashMap<>(names.length * 2);
+        for (String name : names) {
+            String existing = byHash.put(name.hashCode(), name);
+            if (existing != null && !existing.equals(name)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int index(int hash, int multiplier, int shift) {
+        return (hash * multiplier) >>> shift;
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pw.ollie.args.params.impl;
+
+import pw.ollie.args.params.ParamInfo;
+import pw.ollie.args.params.ParamSelector;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+
+/**
+ * The processors registered on a {@link SimpleParamsBase}, compiled into a
+ * chain for each parameter slot containing only the processors whose {@link
+ * ParamSelector} selects that parameter. A chain is never modified, but
+ * replaced with a new chain when processors are registered or unregistered,
+ * so that parsing can use it while it is being changed by another thread.
+ */
+final class ProcessorChain {
+    /**
+     * The processors of each slot of a chain without any processors.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final BiFunction[] NO_PROCESSORS = new BiFunction[0];
+
+    /**
+     * Every registered processor, in order of registration.
+     */
+    private final BiFunction<ParamInfo, String, String>[] processors;
+    /**
+     * The selector of each registered processor.
+     */
+    private final ParamSelector[] selectors;
+    /**
+     * The processors selecting each slot, in order of registration.
+     */
+    private final BiFunction<ParamInfo, String, String>[][] slots;
+
+    private ProcessorChain(BiFunction<ParamInfo, String, String>[] processors,
+            ParamSelector[] selectors, List<ParamInfo> params) {
+        this.processors = processors;
+        this.selectors = selectors;
+        this.slots = compile(processors, selectors, params);
+    }
+
+    /**
+     * Creates a chain without any processors for the given parameters.
+     */
+    @SuppressWarnings("unchecked")
+    static ProcessorChain empty(List<ParamInfo> params) {
+        return new ProcessorChain(NO_PROCESSORS, new ParamSelector[0], params);
+    }
+
+    /**
+     * Creates a copy of this chain with the given processor added last.
+     */
+    ProcessorChain with(ParamSelector selector,
+            BiFunction<ParamInfo, String, String> processor,
+            List<ParamInfo> params) {
+        int length = processors.length;
+        BiFunction<ParamInfo, String, String>[] newProcessors = Arrays.copyOf(
+                processors, length + 1);
+        ParamSelector[] newSelectors = Arrays.copyOf(selectors, length + 1);
+        newProcessors[length] = processor;
+        newSelectors[length] = selector;
+        return new ProcessorChain(newProcessors, newSelectors, params);
+    }
+
+    /**
+     * Creates a copy of this chain without the first registration of the
+     * given processor, or returns this chain if it isn't registered.
+     */
+    ProcessorChain without(BiFunction<ParamInfo, String, String> processor,
+            List<ParamInfo> params) {
+        int index = -1;
+        for (int i = 0; i < processors.length; i++) {
+            if (processors[i].equals(processor)) {
+                index = i;
+                break;
+            }
+        }
+        if (index < 0) {
+            return this;
+        }
+        return new ProcessorChain(remove(processors, index),
+                remove(selectors, index), params);
+    }
+
+    /**
+     * Checks whether any processor selects the parameter in the given slot.
+     */
+    boolean hasProcessors(int slot) {
+        return slots[slot].length != 0;
+    }
+
+    /**
+     * Applies the processors selecting the given slot to the given argument.
+     * A processor returning {@code null} or an empty string leaves the
+     * argument unchanged.
+     */
+    String process(int slot, ParamInfo info, String argument) {
+        for (BiFunction<ParamInfo, String, String> processor : slots[slot]) {
+            String processed = processor.apply(info, argument);
+            if (processed != null && !processed.isEmpty()) {
+                argument = processed;
+            }
+        }
+        return argument;
+    }
+
+    /**
+     * Applies the processors selecting the given slot to the given argument
+     * asynchronously, running each processor on the given executor after the
+     * previous one has finished. If a processor doesn't finish within the
+     * given timeout, the returned future completes exceptionally with a
+     * {@link TimeoutException}, although the processor keeps running.
+     *
+     * @param timeout the time each processor may take, or a negative value
+     *        for no limit
+     */
+    CompletableFuture<String> processAsync(int slot, ParamInfo info,
+            String argument, Executor executor, long timeout, TimeUnit unit) {
+        CompletableFuture<String> result = CompletableFuture.completedFuture(
+                argument);
+        for (BiFunction<ParamInfo, String, String> processor : slots[slot]) {
+            result = result.thenCompose(arg -> apply(processor, info, arg,
+                    executor, timeout, unit));
+        }
+        return result;
+    }
+
+    private static CompletableFuture<String> apply(
+            BiFunction<ParamInfo, String, String> processor, ParamInfo info,
+            String argument, Executor executor, long timeout, TimeUnit unit) {
+        CompletableFuture<String> step = new CompletableFuture<>();
+        ScheduledFuture<?> deadline = timeout < 0 ? null : Deadlines.SCHEDULER
+                .schedule(() -> step.completeExceptionally(
+                        new TimeoutException("Processing " + info.getName()
+                                + " timed out")), timeout, unit);
+        try {
+            executor.execute(() -> {
+                try {
+                    String processed = processor.apply(info, argument);
+                    step.complete(processed != null && !processed.isEmpty()
+                            ? processed : argument);
+                } catch (Throwable t) {
+                    step.completeExceptionally(t);
+                } finally {
+                    if (deadline != null) {
+                        deadline.cancel(false);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (deadline != null) {
+                deadline.cancel(false);
+            }
+            step.completeExceptionally(e);
+        }
+        return step;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static BiFunction<ParamInfo, String, String>[][] compile(
+            BiFunction<ParamInfo, String, String>[] processors,
+            ParamSelector[] selectors, List<ParamInfo> params) {
+        BiFunction<ParamInfo, String, String>[][] slots =
+                new BiFunction[params.size()][];
+        BiFunction<ParamInfo, String, String>[] selected =
+                new BiFunction[processors.length];
+        for (int slot = 0; slot < slots.length; slot++) {
+            ParamInfo info = params.get(slot);
+            int count = 0;
+            for (int i = 0; i < processors.length; i++) {
+                if (selectors[i].matches(info)) {
+                    selected[count++] = processors[i];
+                }
+            }
+            slots[slot] = count == 0 ? NO_PROCESSORS
+                    : Arrays.copyOf(selected, count);
+        }
+        return slots;
+    }
+
+    private static <T> T[] remove(T[] array, int index) {
+        T[] removed = Arrays.copyOf(array, array.length - 1);
+        System.arraycopy(array, index + 1, removed, index,
+                array.length - index - 1);
+        return removed;
+    }
+
+    /**
+     * Holds the thread which times out asynchronous processors, so that it is
+     * only started when first needed.
+     */
+    private static final class Deadlines {
+        /**
+         * Completes timed out processing steps.
+         */
+        static final ScheduledThreadPoolExecutor SCHEDULER;
+
+        static {
+            SCHEDULER = new ScheduledThreadPoolExecutor(1, task -> {
+                Thread thread = new Thread(task, "jlibargs-deadlines");
+                thread.setDaemon(true);
+                return thread;
+            });
+            SCHEDULER.setRemoveOnCancelPolicy(true);
+        }
+
+        private Deadlines() {
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pw.ollie.args.params.impl;
+
+import pw.ollie.args.params.ParamInfo;
+import pw.ollie.args.params.Parameter;
+
+/**
+ * A {@link Parameter} of recycled {@link SimpleParams}, which is refilled
+ * with the value of the same parameter on the next parse instead of a new
+ * {@link Parameter} being created.
+ */
+final class RecycledParameter extends Parameter {
+    RecycledParameter(String arg, ParamInfo info, boolean memoize) {
+        super(arg, info, memoize);
+    }
+
+    /**
+     * Refills this parameter with the given value.
+     *
+     * @param arg the new raw string for this parameter
+     * @param memoize whether to memoize numeric conversions
+     */
+    void refill(String arg, boolean memoize) {
+        reset(arg, memoize);
+    }
+}
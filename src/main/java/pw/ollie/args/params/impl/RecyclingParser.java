@@ -0,0 +1,94 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pw.ollie.args.params.impl;
+
+import pw.ollie.args.Arguments;
+
+/**
+ * Parses arguments for a {@link SimpleParamsBase}, recycling one {@link
+ * Arguments} and one {@link SimpleParams} object per thread.
+ *
+ * The objects returned by {@link #parse(String...)}, including the {@link
+ * pw.ollie.args.params.Parameter} values of the params, belong to the
+ * calling thread and are refilled by that thread's next call, so they must
+ * not be kept or passed to other threads once the command they were parsed
+ * for has been handled. In steady state, a parse allocates nothing unless a
+ * processor does.
+ */
+public final class RecyclingParser {
+    /**
+     * The base to parse parameters with.
+     */
+    private final SimpleParamsBase base;
+    /**
+     * The recycled objects for each thread.
+     */
+    private final ThreadLocal<Slot> slots;
+
+    /**
+     * Creates a new {@link RecyclingParser} for the given base.
+     *
+     * @param base the {@link SimpleParamsBase} to parse parameters with
+     */
+    public RecyclingParser(SimpleParamsBase base) {
+        this.base = base;
+        this.slots = ThreadLocal.withInitial(Slot::new);
+    }
+
+    /**
+     * Parses the given arguments into this thread's recycled {@link
+     * Arguments} object, and creates its {@link SimpleParams} using this
+     * thread's recycled {@link SimpleParams} object.
+     *
+     * @param parse the raw argument {@link String}s to parse
+     * @return this thread's {@link Arguments}, with {@link SimpleParams}
+     */
+    public Arguments parse(String... parse) {
+        Slot slot = slots.get();
+        if (slot.args == null) {
+            slot.args = new Arguments(parse);
+        } else {
+            slot.args.reset(parse);
+        }
+        slot.params = base.createParams(slot.args, slot.params);
+        return slot.args.withParams(slot.params);
+    }
+
+    /**
+     * Gets the {@link SimpleParamsBase} used by this parser.
+     *
+     * @return this parser's {@link SimpleParamsBase}
+     */
+    public SimpleParamsBase getBase() {
+        return base;
+    }
+
+    /**
+     * The recycled objects for a single thread.
+     */
+    private static final class Slot {
+        Arguments args;
+        SimpleParams params;
+    }
+}
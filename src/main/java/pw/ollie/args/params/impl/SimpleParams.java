@@ -24,49 +24,127 @@
 package pw.ollie.args.params.impl;
 
 import pw.ollie.args.Arguments;
+import pw.ollie.args.params.ParamInfo;
+import pw.ollie.args.params.ParamKey;
 import pw.ollie.args.params.Parameter;
 import pw.ollie.args.params.Params;
 
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
- * A wrapper around a {@link Map} to provide a set of parameters for commands
- * and similar.
+ * A set of parameters for commands and similar, holding the value of each
+ * parameter of a {@link SimpleParamsBase} in an array slot. Values can be got
+ * by name, or with a {@link ParamKey} from {@link SimpleParamsBase#key(String)}
+ * without any lookup.
+ *
+ * If the base {@link SimpleParamsBase#setLazyValues(boolean) creates lazy
+ * values}, each {@link Parameter} is only created, and its argument
+ * processed, when it is first got, on the thread getting it.
  */
 public final class SimpleParams implements Params {
     /**
      * The base {@link Arguments} parsed to create these {@link SimpleParams}.
      */
-    private final Arguments arguments;
+    private Arguments arguments;
     /**
      * Base information for these {@link SimpleParams}.
      */
     private final SimpleParamsBase base;
     /**
-     * A {@link Map} of all of the parameters.
+     * The value of each parameter, indexed by slot, or {@code null} for
+     * parameters without a value.
+     */
+    private final Parameter[] params;
+    /**
+     * The values of the variadic parameter, an int[], long[] or double[], or
+     * {@code null} if there are none.
+     */
+    private Object variadicValues;
+    /**
+     * The processors to create lazy values with, or {@code null} if there are
+     * no values still to be created.
+     */
+    private ProcessorChain lazyChain;
+    /**
+     * The amount of slots, from the first, which have values, some of which
+     * may not be created yet, if {@link #lazyChain} isn't {@code null}.
+     */
+    private int lazySlots;
+    /**
+     * The view returned by {@link #parameters()}, once created.
+     */
+    private Set<String> parameterView;
+    /**
+     * The view returned by {@link #values()}, once created.
+     */
+    private Set<Parameter> valueView;
+    /**
+     * The view returned by {@link #entries()}, once created.
+     */
+    private Set<Entry<String, Parameter>> entryView;
+    /**
+     * Whether the value in each slot is equal to the value of an earlier
+     * slot, found once for the current values, or {@code null}.
+     */
+    private boolean[] duplicates;
+    /**
+     * The values from before these params were last reset, which are refilled
+     * rather than creating new values, or {@code null} if these params aren't
+     * recycled.
      */
-    private final Map<String, Parameter> params;
+    private Parameter[] spares;
 
     /**
      * Whether this set of parameters is valid.
      */
     private boolean valid = true;
 
+    /**
+     * Creates a new, empty set of {@link SimpleParams} for the given base.
+     *
+     * @param arguments the arguments the params are for
+     * @param base base information for these params
+     */
+    public SimpleParams(Arguments arguments, SimpleParamsBase base) {
+        this.arguments = arguments;
+        this.base = base;
+        this.params = new Parameter[base.length()];
+    }
+
     /**
      * Creates a new set of {@link SimpleParams} from the given {@link Map} of
      * parameters to values.
      *
+     * @param arguments the arguments the params are for
      * @param base base information for these params
      * @param params the parameters and their values for this Params object
+     * @throws IllegalArgumentException if a parameter isn't one of the base's
+     * @deprecated use {@link #SimpleParams(Arguments, SimpleParamsBase)}
      */
+    @Deprecated
     public SimpleParams(Arguments arguments, SimpleParamsBase base,
             Map<String, Parameter> params) {
-        this.arguments = arguments;
-        this.params = params;
-        this.base = base;
+        this(arguments, base);
+        for (Entry<String, Parameter> entry : params.entrySet()) {
+            int slot = base.slot(entry.getKey());
+            if (slot < 0) {
+                throw new IllegalArgumentException(
+                        "Unknown parameter: " + entry.getKey());
+            }
+            this.params[slot] = entry.getValue();
+        }
     }
 
     @Override
@@ -76,22 +154,92 @@ public final class SimpleParams implements Params {
 
     @Override
     public Parameter get(String parameter) {
-        return params.get(parameter);
+        int slot = base.slot(parameter);
+        return slot < 0 ? null : value(slot);
+    }
+
+    @Override
+    public Parameter get(ParamKey key) {
+        return value(checkKey(key));
     }
 
     @Override
     public boolean has(String parameter) {
-        return params.containsKey(parameter);
+        int slot = base.slot(parameter);
+        return slot >= 0 && present(slot) || variadic(parameter) != null;
     }
 
+    @Override
+    public boolean has(ParamKey key) {
+        return present(checkKey(key)) || variadicValues != null
+                && key.getInfo() == base.getVariadic();
+    }
+
+    /**
+     * Gets an unmodifiable, live view of the names of the parameters with
+     * values, including the variadic parameter, in declaration order.
+     *
+     * @return all parameter names present
+     */
     @Override
     public Set<String> parameters() {
-        return new HashSet<>(params.keySet());
+        Set<String> view = parameterView;
+        if (view == null) {
+            view = parameterView = new ParameterView();
+        }
+        return view;
+    }
+
+    @Override
+    public int[] getInts(String name) {
+        Object values = variadic(name);
+        return values instanceof int[] ? (int[]) values : null;
     }
 
+    @Override
+    public long[] getLongs(String name) {
+        Object values = variadic(name);
+        return values instanceof long[] ? (long[]) values : null;
+    }
+
+    @Override
+    public double[] getDoubles(String name) {
+        Object values = variadic(name);
+        return values instanceof double[] ? (double[]) values : null;
+    }
+
+    /**
+     * Gets an unmodifiable, live view of the distinct {@link Parameter} values
+     * present, not including variadic values, in declaration order. Use
+     * {@link #forEach(BiConsumer)} to visit every value, even if it is equal
+     * to another. Values equal to earlier ones are found once each time these
+     * params are filled, which creates any lazy values.
+     *
+     * @return all present {@link Parameter} values
+     */
     @Override
     public Set<Parameter> values() {
-        return new HashSet<>(params.values());
+        Set<Parameter> view = valueView;
+        if (view == null) {
+            view = valueView = new ValueView();
+        }
+        return view;
+    }
+
+    /**
+     * Calls the given action for each parameter with a value, other than the
+     * variadic parameter, in declaration order, without creating any
+     * iterators or entries.
+     *
+     * @param action the action to call with each parameter and its value
+     */
+    @Override
+    public void forEach(BiConsumer<ParamInfo, Parameter> action) {
+        for (int slot = 0; slot < params.length; slot++) {
+            if (present(slot) && base.isPrimary(slot)) {
+                action.accept(base.info(slot), value(slot));
+            }
+        }
     }
 
     @Override
@@ -105,13 +253,174 @@ public final class SimpleParams implements Params {
     }
 
     /**
-     * Gets a {@link Set} of all of the entries to the {@link Map} of parameters
-     * contained by this {@link SimpleParams} object.
+     * Gets an unmodifiable, live view of entries of each parameter name with
+     * a value and its value, in declaration order. Each entry is created
+     * when it is iterated over, so {@link #forEach(BiConsumer)} is cheaper.
      *
-     * @return a {@link Set} of all entries to the parameters {@link Map}
+     * @return a {@link Set} of all parameter names and values
      */
     public Set<Entry<String, Parameter>> entries() {
-        return new HashSet<>(params.entrySet());
+        Set<Entry<String, Parameter>> view = entryView;
+        if (view == null) {
+            view = entryView = new EntryView();
+        }
+        return view;
+    }
+
+    /**
+     * Clears these parameters so they can be refilled for the given {@link
+     * Arguments}, keeping the backing array and the old values, which are
+     * refilled in place by {@link #newValue(int, String, boolean)}. Should
+     * only be used by {@link SimpleParamsBase#createParams(Arguments,
+     * SimpleParams)}.
+     *
+     * @param arguments the new {@link Arguments} for these parameters
+     */
+    void reset(Arguments arguments) {
+        this.arguments = arguments;
+        if (spares == null) {
+            spares = new Parameter[params.length];
+        }
+        System.arraycopy(params, 0, spares, 0, params.length);
+        Arrays.fill(params, null);
+        this.duplicates = null;
+        this.variadicValues = null;
+        this.lazyChain = null;
+        this.lazySlots = 0;
+        this.valid = true;
+    }
+
+    /**
+     * Gets the value in the given slot, for {@link SimpleParamsBase}.
+     *
+     * @param slot the slot of the parameter
+     * @return the parameter's value, or {@code null}
+     */
+    Parameter get(int slot) {
+        return value(slot);
+    }
+
+    /**
+     * Sets the value in the given slot. Should only be used by {@link
+     * SimpleParamsBase}.
+     *
+     * @param slot the slot of the parameter
+     * @param value the parameter's value
+     */
+    void set(int slot, Parameter value) {
+        params[slot] = value;
+        duplicates = null;
+    }
+
+    /**
+     * Creates a value for the given slot, refilling the value the slot had
+     * before these params were last reset if they are recycled. Should only
+     * be used by {@link SimpleParamsBase}.
+     *
+     * @param slot the slot of the parameter
+     * @param value the raw string for the value
+     * @param memoize whether to memoize numeric conversions
+     * @return the value for the slot
+     */
+    Parameter newValue(int slot, String value, boolean memoize) {
+        if (spares == null) {
+            return new Parameter(value, base.info(slot), memoize);
+        }
+        Parameter spare = spares[slot];
+        if (spare instanceof RecycledParameter) {
+            spares[slot] = null;
+            ((RecycledParameter) spare).refill(value, memoize);
+            return spare;
+        }
+        return new RecycledParameter(value, base.info(slot), memoize);
+    }
+
+    /**
+     * Sets the given amount of slots, from the first, to have values which
+     * are created when first got, by processing their arguments with the
+     * given processors. Should only be used by {@link SimpleParamsBase}.
+     *
+     * @param slots the amount of slots with values
+     * @param chain the processors to create the values with
+     */
+    void setLazy(int slots, ProcessorChain chain) {
+        this.lazySlots = slots;
+        this.lazyChain = chain;
+        this.duplicates = null;
+    }
+
+    /**
+     * Sets the values of the variadic parameter. Should only be used by
+     * {@link SimpleParamsBase}.
+     *
+     * @param values an int[], long[] or double[] of values
+     */
+    void setVariadicValues(Object values) {
+        this.variadicValues = values;
+    }
+
+    /**
+     * Gets the values of the variadic parameter, for {@link
+     * SimpleParamsBase}.
+     *
+     * @return an int[], long[] or double[] of values, or {@code null}
+     */
+    Object getVariadicValues() {
+        return variadicValues;
+    }
+
+    private boolean present(int slot) {
+        return params[slot] != null || lazyChain != null && slot < lazySlots;
+    }
+
+    private Parameter value(int slot) {
+        Parameter value = params[slot];
+        if (value == null && lazyChain != null && slot < lazySlots) {
+            value = params[slot] = base.createValue(this, arguments, slot,
+                    lazyChain);
+        }
+        return value;
+    }
+
+    /**
+     * Gets whether the value in each slot is equal to an earlier value,
+     * finding them if the values changed since they were last found.
+     */
+    private boolean[] duplicates() {
+        boolean[] result = duplicates;
+        if (result == null) {
+            result = new boolean[params.length];
+            Set<Parameter> seen = new HashSet<>();
+            for (int slot = 0; slot < params.length; slot++) {
+                if (present(slot) && base.isPrimary(slot)) {
+                    result[slot] = !seen.add(value(slot));
+                }
+            }
+            duplicates = result;
+        }
+        return result;
+    }
+
+    private Object variadic(String name) {
+        if (variadicValues == null
+                || !base.getVariadic().getName().equals(name)) {
+            return null;
+        }
+        return variadicValues;
+    }
+
+    /**
+     * Checks that the given key is for a parameter of this params' base.
+     *
+     * @return the key's slot
+     */
+    private int checkKey(ParamKey key) {
+        int slot = key.getSlot();
+        if (slot >= params.length || base.info(slot) != key.getInfo()) {
+            throw new IllegalArgumentException(
+                    "Parameter key " + key + " is for a different base");
+        }
+        return slot;
     }
 
     /**
@@ -121,4 +430,131 @@ public final class SimpleParams implements Params {
     void invalidate() {
         valid = false;
     }
+
+    /**
+     * An unmodifiable view of some of the slots of these params, in order.
+     */
+    private abstract class SlotView<T> extends AbstractSet<T> {
+        /**
+         * Checks whether the given slot is an element of this view.
+         */
+        abstract boolean includes(int slot);
+
+        /**
+         * Gets the element for the given slot.
+         */
+        abstract T element(int slot);
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (int slot = 0; slot < params.length; slot++) {
+                if (includes(slot)) {
+                    size++;
+                }
+            }
+            return size;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<T>() {
+                private int next = find(0);
+
+                @Override
+                public boolean hasNext() {
+                    return next < params.length;
+                }
+
+                @Override
+                public T next() {
+                    if (next >= params.length) {
+                        throw new NoSuchElementException();
+                    }
+                    T element = element(next);
+                    next = find(next + 1);
+                    return element;
+                }
+            };
+        }
+
+        @Override
+        public void forEach(Consumer<? super T> action) {
+            for (int slot = 0; slot < params.length; slot++) {
+                if (includes(slot)) {
+                    action.accept(element(slot));
+                }
+            }
+        }
+
+        @Override
+        public Spliterator<T> spliterator() {
+            return Spliterators.spliterator(this, Spliterator.ORDERED
+                    | Spliterator.DISTINCT | Spliterator.NONNULL);
+        }
+
+        private int find(int from) {
+            int slot = from;
+            while (slot < params.length && !includes(slot)) {
+                slot++;
+            }
+            return slot;
+        }
+    }
+
+    /**
+     * The view of the names of the parameters with values.
+     */
+    private final class ParameterView extends SlotView<String> {
+        @Override
+        boolean includes(int slot) {
+            return base.isPrimary(slot) && (present(slot)
+                    || variadicValues != null
+                    && base.info(slot) == base.getVariadic());
+        }
+
+        @Override
+        String element(int slot) {
+            return base.info(slot).getName();
+        }
+
+        @Override
+        public boolean contains(Object name) {
+            return name instanceof String && has((String) name);
+        }
+    }
+
+    /**
+     * The view of the distinct values of the parameters with values.
+     */
+    private final class ValueView extends SlotView<Parameter> {
+        @Override
+        boolean includes(int slot) {
+            // skip values equal to an earlier value, as this is a set
+            return present(slot) && base.isPrimary(slot)
+                    && !duplicates()[slot];
+        }
+
+        @Override
+        Parameter element(int slot) {
+            return value(slot);
+        }
+    }
+
+    /**
+     * The view of entries of the names and values of the parameters with
+     * values.
+     */
+    private final class EntryView extends SlotView<Entry<String, Parameter>> {
+        @Override
+        boolean includes(int slot) {
+            return present(slot) && base.isPrimary(slot);
+        }
+
+        @Override
+        Entry<String, Parameter> element(int slot) {
+            return new SimpleImmutableEntry<>(base.info(slot).getName(),
+                    value(slot));
+        }
+    }
 }
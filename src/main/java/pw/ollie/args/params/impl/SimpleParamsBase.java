@@ -24,14 +24,26 @@
 package pw.ollie.args.params.impl;
 
 import pw.ollie.args.Arguments;
+import pw.ollie.args.BatchParser;
 import pw.ollie.args.params.ParamInfo;
+import pw.ollie.args.params.ParamKey;
+import pw.ollie.args.params.ParamSelector;
 import pw.ollie.args.params.Parameter;
+import pw.ollie.args.params.Params;
 import pw.ollie.args.params.ParamsBase;
 
+import java.lang.reflect.Array;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.function.BiFunction;
 
 /**
@@ -59,6 +71,14 @@ public final class SimpleParamsBase implements ParamsBase {
      * The character which separates arguments.
      */
     public static final char ARGUMENT_SEPARATOR = ' ';
+    /**
+     * The suffix of a variadic parameter's name, such as {@code ids:long...}.
+     */
+    public static final String VARIADIC_SUFFIX = "...";
+    /**
+     * The character separating a variadic parameter's name from its type.
+     */
+    public static final char TYPE_SEPARATOR = ':';
     /**
      * The status code for no parameter currently being parsed.
      */
@@ -72,10 +92,47 @@ public final class SimpleParamsBase implements ParamsBase {
      */
     private static final int OPTIONAL_PARAMETER = 2;
 
+    /**
+     * The cache used by {@link #fromUsageString(String)}.
+     */
+    private static final UsageCache usageCache = new UsageCache();
+    /**
+     * Atomically replaces {@link #processors}.
+     */
+    private static final AtomicReferenceFieldUpdater<SimpleParamsBase,
+            ProcessorChain> PROCESSORS = AtomicReferenceFieldUpdater.newUpdater(
+                    SimpleParamsBase.class, ProcessorChain.class, "processors");
+
     /**
      * A list of all of the parameters.
      */
     private final List<ParamInfo> params;
+    /**
+     * The variadic parameter, which is the last of {@link #params}, or {@code
+     * null} if there isn't one.
+     */
+    private final ParamInfo variadic;
+    /**
+     * The amount of parameters which aren't variadic.
+     */
+    private final int fixedParams;
+    /**
+     * The slot of each parameter by name.
+     */
+    private final NameTable names;
+    /**
+     * The key of each parameter, indexed by slot.
+     */
+    private final List<ParamKey> keys;
+    /**
+     * The first word of the usage string, such as {@code /command}.
+     */
+    private final String command;
+    /**
+     * The literal words between the command and the first parameter, such as
+     * {@code subcommand} in {@code /command subcommand <x>}.
+     */
+    private final List<String> literals;
     /**
      * The number of arguments before the first parameter.
      */
@@ -86,29 +143,106 @@ public final class SimpleParamsBase implements ParamsBase {
      */
     private final int amtRequired;
     /**
-     * Flag information for validation.
+     * The names of the flags which must be present, for validation.
+     */
+    private final String[] requiredFlags;
+    /**
+     * The names of all of the flags in the usage string, in order.
+     */
+    private final List<String> flags;
+    /**
+     * For each amount of parameters with values, other than the variadic
+     * parameter, the amount of distinctly named parameters among them, for
+     * validation.
+     */
+    private final int[] presentParams;
+    /**
+     * All registered parameter processors, compiled into a chain for each
+     * parameter.
+     */
+    private volatile ProcessorChain processors;
+    /**
+     * Whether created {@link Parameter}s memoize their numeric values.
+     */
+    private boolean memoizeValues;
+    /**
+     * Whether created {@link SimpleParams} create their {@link Parameter}s
+     * when first got.
      */
-    private final List<FlagInfo> requiredFlags;
+    private boolean lazyValues;
     /**
-     * All registered parameter processors.
+     * Whether this base is shared by a {@link UsageCache}, and so can't be
+     * modified.
      */
-    private final List<BiFunction<ParamInfo, String, String>> processors;
+    private final boolean shared;
 
     /**
      * Creates a new ParamsBase for the given {@link List} of params and the
-     * given amount of arguments before the first parameter.
+     * given words before the first parameter, each literal word of which is
+     * an argument before the first parameter.
      *
      * @param params the parameters for this ParamsBase
-     * @param argsBeforeParams the amount of arguments before the first param
+     * @param words the command and literal words before the first param
      * @param amtRequired the amount of required parameters
+     * @param requiredFlags the flags which must be present
+     * @param flags the names of all of the flags
+     * @param shared whether this base is shared by a {@link UsageCache}
      */
-    private SimpleParamsBase(List<ParamInfo> params, int argsBeforeParams,
-            int amtRequired, List<FlagInfo> requiredFlags) {
+    private SimpleParamsBase(List<ParamInfo> params, List<String> words,
+            int amtRequired, List<FlagInfo> requiredFlags, List<String> flags,
+            boolean shared) {
         this.params = params;
-        this.argsBeforeParams = argsBeforeParams;
+        ParamInfo last = params.isEmpty() ? null
+                : params.get(params.size() - 1);
+        this.variadic = last != null && last.isVariadic() ? last : null;
+        this.fixedParams = params.size() - (variadic == null ? 0 : 1);
+        this.names = new NameTable(params);
+        ParamKey[] keys = new ParamKey[params.size()];
+        for (int slot = 0; slot < keys.length; slot++) {
+            keys[slot] = new ParamKey(params.get(slot), slot);
+        }
+        this.keys = Collections.unmodifiableList(Arrays.asList(keys));
+        this.command = words.isEmpty() ? "" : words.get(0);
+        this.literals = words.isEmpty() ? Collections.emptyList()
+                : Collections.unmodifiableList(words.subList(1, words.size()));
+        // one source for both, so routing and parsing always agree
+        this.argsBeforeParams = literals.size();
         this.amtRequired = amtRequired;
-        this.requiredFlags = requiredFlags;
-        this.processors = new ArrayList<>();
+        this.requiredFlags = new String[requiredFlags.size()];
+        for (int i = 0; i < this.requiredFlags.length; i++) {
+            this.requiredFlags[i] = requiredFlags.get(i).name;
+        }
+        this.flags = Collections.unmodifiableList(flags);
+        this.presentParams = new int[fixedParams + 1];
+        for (int slot = 0; slot < fixedParams; slot++) {
+            presentParams[slot + 1] = presentParams[slot]
+                    + (names.isPrimary(slot) ? 1 : 0);
+        }
+        this.processors = ProcessorChain.empty(this.params);
+        this.shared = shared;
+    }
+
+    /**
+     * Creates a new, unshared ParamsBase with the same parameters as the given
+     * compiled base, sharing its immutable state.
+     *
+     * @param compiled the base to copy
+     */
+    private SimpleParamsBase(SimpleParamsBase compiled) {
+        this.params = compiled.params;
+        this.variadic = compiled.variadic;
+        this.fixedParams = compiled.fixedParams;
+        this.names = compiled.names;
+        this.keys = compiled.keys;
+        this.command = compiled.command;
+        this.literals = compiled.literals;
+        this.argsBeforeParams = compiled.argsBeforeParams;
+        this.amtRequired = compiled.amtRequired;
+        this.requiredFlags = compiled.requiredFlags;
+        this.flags = compiled.flags;
+        this.presentParams = compiled.presentParams;
+        this.processors = ProcessorChain.empty(this.params);
+        this.shared = false;
     }
 
     @Override
@@ -124,13 +258,117 @@ public final class SimpleParamsBase implements ParamsBase {
     @Override
     public void registerProcessor(
             BiFunction<ParamInfo, String, String> processor) {
-        processors.add(processor);
+        registerProcessor(ParamSelector.all(), processor);
+    }
+
+    /**
+     * Registers the given {@link BiFunction} as a processor for the
+     * parameters selected by the given {@link ParamSelector}. The processor
+     * is only called for arguments of selected parameters, and the selector
+     * is only tested once for each parameter, when the processor is
+     * registered.
+     *
+     * @param selector the {@link ParamSelector} for the parameters to process
+     * @param processor the {@link BiFunction} to use as a parameter processor
+     * @see ParamSelector#named(String...)
+     */
+    public void registerProcessor(ParamSelector selector,
+            BiFunction<ParamInfo, String, String> processor) {
+        checkNotShared();
+        if (selector == null || processor == null) {
+            throw new IllegalArgumentException();
+        }
+        ProcessorChain current;
+        ProcessorChain updated;
+        do {
+            current = processors;
+            updated = current.with(selector, processor, params);
+        } while (!PROCESSORS.compareAndSet(this, current, updated));
     }
 
+    /**
+     * Unregisters the given {@link BiFunction} from parameter processing. If
+     * it is registered more than once, only the first registration is
+     * removed, whatever its {@link ParamSelector}.
+     *
+     * @param processor the {@link BiFunction} to unregister
+     */
     @Override
     public void unregisterProcessor(
             BiFunction<ParamInfo, String, String> processor) {
-        processors.remove(processor);
+        checkNotShared();
+        ProcessorChain current;
+        ProcessorChain updated;
+        do {
+            current = processors;
+            updated = current.without(processor, params);
+            if (updated == current) {
+                return;
+            }
+        } while (!PROCESSORS.compareAndSet(this, current, updated));
+    }
+
+    /**
+     * Sets whether {@link Parameter}s created by this base memoize their
+     * numeric values, so that reading a parameter with, for example, {@link
+     * Parameter#asInt()} many times only parses it once. Disabled by default.
+     *
+     * @param memoizeValues whether created parameters memoize their values
+     * @see pw.ollie.args.Argument#Argument(String, boolean)
+     */
+    public void setMemoizeValues(boolean memoizeValues) {
+        checkNotShared();
+        this.memoizeValues = memoizeValues;
+    }
+
+    /**
+     * Checks whether {@link Parameter}s created by this base memoize their
+     * numeric values.
+     *
+     * @return whether created parameters memoize their values
+     */
+    public boolean isMemoizeValues() {
+        return memoizeValues;
+    }
+
+    /**
+     * Sets whether {@link SimpleParams} created by this base only create each
+     * {@link Parameter}, running the processors for its argument, when it is
+     * first got. This avoids processing parameters which are never read, for
+     * example if a command fails a permission check, but processors then run
+     * on the thread getting the parameter, at that time, and the values of
+     * the same {@link SimpleParams} must not be got by several threads at
+     * once. The {@link Arguments} must not be {@link
+     * Arguments#reset(String...) reset} while their params are still used.
+     * Validation doesn't depend on processing, so {@link
+     * SimpleParams#valid()} is the same either way. Disabled by default.
+     *
+     * @param lazyValues whether created params create values when first got
+     */
+    public void setLazyValues(boolean lazyValues) {
+        checkNotShared();
+        this.lazyValues = lazyValues;
+    }
+
+    /**
+     * Checks whether {@link SimpleParams} created by this base only create
+     * each {@link Parameter} when it is first got.
+     *
+     * @return whether created params create values when first got
+     */
+    public boolean isLazyValues() {
+        return lazyValues;
+    }
+
+    /**
+     * Checks whether this base is shared by a {@link UsageCache}, in which
+     * case it can't be modified. Use {@link #fromUsageString(String)} for a
+     * base which can be modified.
+     *
+     * @return whether this base is shared
+     */
+    public boolean isShared() {
+        return shared;
     }
 
     /**
@@ -140,7 +378,76 @@ public final class SimpleParamsBase implements ParamsBase {
      * @return the required amount of flags
      */
     public int getAmtRequiredFlags() {
-        return requiredFlags.size();
+        return requiredFlags.length;
+    }
+
+    /**
+     * Gets the names of all of the flags in the usage string, required and
+     * optional, such as {@code f} for {@code <-f value>}.
+     *
+     * @return an unmodifiable {@link List} of flag names, in order
+     */
+    public List<String> getFlags() {
+        return flags;
+    }
+
+    /**
+     * Gets the {@link ParamKey} for the parameter with the given name, which
+     * can be used to get the parameter's value from {@link Params} created by
+     * this base, or by any base from the same usage string, without looking
+     * it up by name.
+     *
+     * @param name the name of the parameter
+     * @return the key for the parameter
+     * @throws IllegalArgumentException if there is no such parameter
+     */
+    public ParamKey key(String name) {
+        int slot = names.slot(name);
+        if (slot < 0) {
+            throw new IllegalArgumentException("No parameter named " + name);
+        }
+        return keys.get(slot);
+    }
+
+    /**
+     * Gets the {@link ParamKey}s for all of the parameters, in order.
+     *
+     * @return an unmodifiable {@link List} of parameter keys
+     */
+    public List<ParamKey> keys() {
+        return keys;
+    }
+
+    /**
+     * Gets the variadic parameter, which takes all arguments after the other
+     * parameters, if there is one.
+     *
+     * @return the variadic parameter, or {@code null} if there isn't one
+     */
+    public ParamInfo getVariadic() {
+        return variadic;
+    }
+
+    /**
+     * Gets the command of the usage string, which is its first word, such as
+     * {@code /command} in {@code /command subcommand <x>}.
+     *
+     * @return the command, or an empty string if the usage string is empty
+     */
+    public String getCommand() {
+        return command;
+    }
+
+    /**
+     * Gets the literal words between the command and the first parameter of
+     * the usage string, such as {@code subcommand} in {@code /command
+     * subcommand <x>}.
+     *
+     * @return an unmodifiable {@link List} of the literal words
+     * @see CommandDispatcher
+     */
+    public List<String> getLiterals() {
+        return literals;
     }
 
     /**
@@ -154,61 +461,447 @@ public final class SimpleParamsBase implements ParamsBase {
 
     @Override
     public SimpleParams createParams(Arguments args) {
-        Map<String, Parameter> map = new HashMap<>();
-        int curArg = argsBeforeParams;
-        int curParam = 0;
-        int curFlag = 0;
-        boolean valid = true;
-
-        while (curArg < args.length(false) && curParam < params.size()) {
-            if (curFlag < requiredFlags.size()) {
-                if (!args.hasValueFlag(requiredFlags.get(curFlag++).name)) {
-                    // a required flag isn't present
-                    valid = false;
-                }
+        return fill(args, new SimpleParams(args, this), null, processors);
+    }
+
+    /**
+     * Creates {@link SimpleParams} for the given {@link Arguments}, refilling
+     * the given {@link SimpleParams} instead of creating a new object if it
+     * was created by this {@link SimpleParamsBase}. This allows a single
+     * {@link SimpleParams} object to be recycled for many parses, in which case
+     * any use of it for previous arguments must have finished before this
+     * method is called. The {@link Parameter} values of recycled params are
+     * refilled in place too, so they mustn't be kept either.
+     *
+     * @param args the {@link Arguments} to get parameter values from
+     * @param reuse the {@link SimpleParams} to refill, or {@code null}
+     * @return {@code reuse} refilled from the given arguments if it could be
+     *         reused, else a new {@link SimpleParams} object
+     */
+    public SimpleParams createParams(Arguments args, SimpleParams reuse) {
+        SimpleParams result = reuse != null && reuse.getBase() == this ? reuse
+                : new SimpleParams(args, this);
+        // recycled params refill their Parameter values too
+        result.reset(args);
+        return fill(args, result, null, processors);
+    }
+
+    /**
+     * Creates new {@link SimpleParams} for the given {@link Arguments}, running
+     * the processors on the given {@link Executor}. The processors of
+     * different parameters run concurrently, while the processors of one
+     * parameter run one after another, in order of registration. Processors
+     * which do I/O can use an executor which starts a thread per task, such
+     * as a virtual thread executor on newer JDKs, so that no thread is
+     * blocked waiting for every lookup.
+     *
+     * @param args the {@link Arguments} to get parameter values from
+     * @param executor the {@link Executor} to run processors on
+     * @return a future completed with new {@link SimpleParams} from this base
+     *         and the given args, or exceptionally if a processor throws
+     */
+    public CompletableFuture<SimpleParams> createParamsAsync(Arguments args,
+            Executor executor) {
+        return createParamsAsync(args, executor, -1, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates new {@link SimpleParams} for the given {@link Arguments}, running
+     * the processors on the given {@link Executor} as per {@link
+     * #createParamsAsync(Arguments, Executor)}. If any processor doesn't
+     * finish within the given timeout, the returned {@link SimpleParams} are
+     * invalid, and the parameter keeps its unprocessed value.
+     * A timed out processor isn't interrupted, but its result is ignored.
+     *
+     * @param args the {@link Arguments} to get parameter values from
+     * @param executor the {@link Executor} to run processors on
+     * @param timeout the time each processor may take
+     * @param unit the unit of the timeout
+     * @return a future completed with new {@link SimpleParams} from this base
+     *         and the given args, or exceptionally if a processor throws
+     */
+    public CompletableFuture<SimpleParams> createParamsAsync(Arguments args,
+            Executor executor, long timeout, TimeUnit unit) {
+        if (executor == null || unit == null) {
+            throw new IllegalArgumentException();
+        }
+        // one snapshot of the processors for the whole parse
+        ProcessorChain chain = processors;
+        SimpleParams result = fill(args, new SimpleParams(args, this), null,
+                null);
+        String[] values = new String[fixedParams];
+        AtomicBoolean timedOut = new AtomicBoolean();
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        for (int slot = 0; slot < fixedParams; slot++) {
+            Parameter param = result.get(slot);
+            if (param == null || !chain.hasProcessors(slot)) {
+                continue;
             }
+            int index = slot;
+            String unprocessed = param.get();
+            pending.add(chain.processAsync(slot, param.getInfo(), unprocessed,
+                    executor, timeout, unit).handle((value, error) -> {
+                        if (error == null) {
+                            values[index] = value;
+                        } else if (cause(error) instanceof TimeoutException) {
+                            values[index] = unprocessed;
+                            timedOut.set(true);
+                        } else {
+                            throw new CompletionException(cause(error));
+                        }
+                        return null;
+                    }));
+        }
+        if (pending.isEmpty()) {
+            return CompletableFuture.completedFuture(result);
+        }
 
-            ParamInfo info = params.get(curParam);
-            String val = process(info, args.getString(curArg, false));
+        return CompletableFuture.allOf(pending.toArray(
+                new CompletableFuture<?>[0])).thenApply(done -> {
+                    for (int slot = 0; slot < values.length; slot++) {
+                        if (values[slot] != null) {
+                            result.set(slot, new Parameter(values[slot],
+                                    params.get(slot), memoizeValues));
+                        }
+                    }
+                    if (timedOut.get()) {
+                        result.invalidate();
+                    }
+                    return result;
+                });
+    }
 
-            map.put(info.getName(), new Parameter(val, info));
-            curArg++;
-            curParam++;
+    /**
+     * Creates new {@link SimpleParams} for the given {@link Arguments}. If the
+     * given previous {@link Params} were created by this base, any {@link
+     * Parameter} whose argument is the same {@link pw.ollie.args.Argument}
+     * object as in the previous {@link Arguments} is reused without being
+     * processed again. {@link pw.ollie.args.IncrementalParser} shares {@link
+     * pw.ollie.args.Argument} objects for unchanged tokens between edits, and
+     * parameters and variadic values before the edit are reused without
+     * comparing their arguments, as per {@link
+     * Arguments#unchangedSince(Arguments)}.
+     *
+     * @param args the {@link Arguments} to get parameter values from
+     * @param previous the {@link Params} created for the previous version of
+     *        the arguments, or {@code null}
+     * @return new {@link SimpleParams} from this base and the given args
+     */
+    @Override
+    public SimpleParams updateParams(Arguments args, Params previous) {
+        SimpleParams result = new SimpleParams(args, this);
+        if (previous instanceof SimpleParams && previous.getBase() == this) {
+            return fill(args, result, (SimpleParams) previous, processors);
         }
+        return fill(args, result, null, processors);
+    }
 
-        while (curFlag < requiredFlags.size()) {
-            // get through the rest of the flags...
-            if (!args.hasValueFlag(requiredFlags.get(curFlag++).name)) {
-                // a required flag isn't present
+    /**
+     * Fills the given result from the given arguments, processing each value
+     * with the given chain, or leaving values unprocessed if it is {@code
+     * null}.
+     */
+    private SimpleParams fill(Arguments args, SimpleParams result,
+            SimpleParams previous, ProcessorChain chain) {
+        int positional = args.length(false);
+        int filled = filledParams(positional);
+        if (lazyValues && previous == null && chain != null) {
+            result.setLazy(filled, chain);
+            filled = 0;
+        }
+        // the arguments known to be the same as those of the previous params
+        int unchanged = previous == null ? 0
+                : args.unchangedSince(previous.getArguments());
+        for (int slot = 0; slot < filled; slot++) {
+            int index = argsBeforeParams + slot;
+            Parameter param;
+            if (previous == null) {
+                param = null;
+            } else if (index < unchanged) {
+                param = previous.get(slot);
+            } else {
+                param = unchanged(previous, slot, args, index);
+            }
+            if (param == null) {
+                param = chain == null ? result.newValue(slot,
+                        args.getString(index, false), memoizeValues)
+                        : createValue(result, args, slot, chain);
+            }
+            result.set(slot, param);
+        }
+
+        boolean valid = present(positional) >= amtRequired
+                && hasRequiredFlags(args);
+        if (hasVariadicValues(positional)) {
+            int start = argsBeforeParams + fixedParams;
+            Object values = previous == null ? variadicValues(args, start)
+                    : variadicValues(args, start, previous, unchanged);
+            if (values == null) {
+                // one of the values isn't a number of the right type
                 valid = false;
+            } else {
+                result.setVariadicValues(values);
             }
         }
 
-        SimpleParams params = new SimpleParams(args, this, map);
-        if (!valid || amtRequired > map.size()) {
-            params.invalidate();
+        if (!valid) {
+            result.invalidate();
         }
 
-        return params;
+        return result;
     }
 
-    private String process(ParamInfo info, String argument) {
-        for (BiFunction<ParamInfo, String, String> processor : processors) {
-            String processed = processor.apply(info, argument);
-            if (processed != null && !processed.isEmpty()) {
-                argument = processed;
+    /**
+     * Checks whether {@link SimpleParams} created by this base from the given
+     * {@link Arguments} would be valid, without creating them. The amount of
+     * arguments is checked first, then the required flags, each of which is
+     * looked up in the index of flags built when the arguments were parsed,
+     * and only then any variadic values. Invalid arguments are therefore
+     * rejected without creating any {@link Parameter}s or processing any
+     * values.
+     *
+     * @param args the {@link Arguments} to check
+     * @return whether params created from the given args would be valid
+     */
+    public boolean accepts(Arguments args) {
+        int positional = args.length(false);
+        if (present(positional) < amtRequired || !hasRequiredFlags(args)) {
+            return false;
+        }
+        return !hasVariadicValues(positional) || variadicValues(args,
+                argsBeforeParams + fixedParams) != null;
+    }
+
+    /**
+     * Creates new {@link SimpleParams} for the given {@link Arguments} if they
+     * would be valid, as per {@link #accepts(Arguments)}.
+     *
+     * @param args the {@link Arguments} to get parameter values from
+     * @return new, valid {@link SimpleParams} from this base and the given
+     *         args, or {@code null} if they would be invalid
+     */
+    public SimpleParams createValidParams(Arguments args) {
+        return accepts(args) ? createParams(args) : null;
+    }
+
+    /**
+     * Parses each of the given String[]s into {@link Arguments} and creates
+     * {@link SimpleParams} for them, in parallel on the common {@link
+     * java.util.concurrent.ForkJoinPool}. Each {@link Arguments} object has its
+     * {@link SimpleParams} set, as with {@link Arguments#Arguments(ParamsBase,
+     * String...)}.
+     *
+     * @param batch the raw arguments to parse
+     * @return an unmodifiable {@link List} of {@link SimpleParams}, in the same
+     *         order as the given batch
+     */
+    public List<SimpleParams> createParamsBatch(List<String[]> batch) {
+        return createParamsBatch(batch, BatchParser.common());
+    }
+
+    /**
+     * Parses each of the given String[]s into {@link Arguments} and creates
+     * {@link SimpleParams} for them, in parallel using the given {@link
+     * BatchParser}.
+     *
+     * @param batch the raw arguments to parse
+     * @param parser the {@link BatchParser} to parse with
+     * @return an unmodifiable {@link List} of {@link SimpleParams}, in the same
+     *         order as the given batch
+     * @see #createParamsBatch(List)
+     */
+    public List<SimpleParams> createParamsBatch(List<String[]> batch,
+            BatchParser parser) {
+        return parser.parseAll(batch, args -> {
+            SimpleParams result = createParams(args);
+            args.withParams(result);
+            return result;
+        });
+    }
+
+    private static Throwable cause(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+    }
+
+    private void checkNotShared() {
+        if (shared) {
+            throw new UnsupportedOperationException(
+                    "Shared SimpleParamsBase can't be modified");
+        }
+    }
+
+    /**
+     * Gets the amount of parameters, other than the variadic parameter, which
+     * have values for the given amount of positional arguments.
+     */
+    private int filledParams(int positional) {
+        return Math.max(0, Math.min(fixedParams,
+                positional - argsBeforeParams));
+    }
+
+    /**
+     * Checks whether the variadic parameter has values for the given amount of
+     * positional arguments.
+     */
+    private boolean hasVariadicValues(int positional) {
+        return variadic != null && positional - argsBeforeParams > fixedParams;
+    }
+
+    /**
+     * Gets the amount of distinctly named parameters which have values for
+     * the given amount of positional arguments.
+     */
+    private int present(int positional) {
+        return presentParams[filledParams(positional)]
+                + (hasVariadicValues(positional) ? 1 : 0);
+    }
+
+    private boolean hasRequiredFlags(Arguments args) {
+        for (String flag : requiredFlags) {
+            if (!args.hasValueFlag(flag)) {
+                return false;
             }
         }
-        return argument;
+        return true;
+    }
+
+    private Object variadicValues(Arguments args, int start) {
+        Class<?> type = variadic.getVariadicType();
+        if (type == int.class) {
+            return args.getInts(start, false);
+        } else if (type == long.class) {
+            return args.getLongs(start, false);
+        }
+        return args.getDoubles(start, false);
+    }
+
+    /**
+     * Gets the variadic values from the given start, reusing the values of
+     * the given previous params for the given amount of unchanged arguments
+     * so that only the arguments after them are parsed.
+     */
+    private Object variadicValues(Arguments args, int start,
+            SimpleParams previous, int unchanged) {
+        Object kept = previous.getVariadicValues();
+        int reused = kept == null ? 0 : unchanged - start;
+        if (reused <= 0) {
+            return variadicValues(args, start);
+        }
+        Object rest = variadicValues(args, start + reused);
+        if (rest == null) {
+            return null;
+        }
+        int length = Array.getLength(rest);
+        Object values = Array.newInstance(variadic.getVariadicType(),
+                reused + length);
+        System.arraycopy(kept, 0, values, 0, reused);
+        System.arraycopy(rest, 0, values, reused, length);
+        return values;
+    }
+
+    private Parameter unchanged(SimpleParams previous, int slot,
+            Arguments args, int index) {
+        Arguments previousArgs = previous.getArguments();
+        if (index < previousArgs.length(false) && previousArgs.get(index,
+                false) == args.get(index, false)) {
+            return previous.get(slot);
+        }
+        return null;
+    }
+
+    /**
+     * Creates the value of the parameter in the given slot of the given
+     * result, processing its argument with the given processors.
+     */
+    Parameter createValue(SimpleParams result, Arguments args, int slot,
+            ProcessorChain chain) {
+        String val = args.getString(argsBeforeParams + slot, false);
+        if (chain.hasProcessors(slot)) {
+            val = chain.process(slot, params.get(slot), val);
+        }
+        return result.newValue(slot, val, memoizeValues);
+    }
+
+    /**
+     * Gets the slot of the parameter with the given name.
+     *
+     * @return the parameter's slot, or -1 if there is no such parameter
+     */
+    int slot(String name) {
+        return names.slot(name);
+    }
+
+    /**
+     * Gets the information of the parameter in the given slot.
+     */
+    ParamInfo info(int slot) {
+        return params.get(slot);
+    }
+
+    /**
+     * Checks whether the parameter in the given slot is the one found by its
+     * name, which is only false for a parameter followed by another with the
+     * same name.
+     */
+    boolean isPrimary(int slot) {
+        return names.isPrimary(slot);
     }
 
     /**
      * Builds a new ParamsBase by parsing the given usage string for a command.
+     * The parsed form of the usage string is cached, so it is only parsed
+     * once however many bases are built from it. The returned base is always
+     * a new object, so processors can be registered on it without affecting
+     * other bases.
+     * The last parameter may be variadic, such as {@code <ids:long...>} or
+     * {@code [scores:double...]}, in which case it takes all remaining
+     * arguments as an int[], long[] or double[], available from {@link
+     * Params#getInts(String)}, {@link Params#getLongs(String)} or {@link
+     * Params#getDoubles(String)}. A required variadic parameter needs at least
+     * one value.
      *
      * @param usageString the command usage string to parse
      * @return a new ParamsBase created from parsing the given usage string
+     * @throws IllegalArgumentException if a parameter follows a variadic
+     *         parameter, or a variadic parameter's type isn't supported
      */
     public static SimpleParamsBase fromUsageString(String usageString) {
+        return new SimpleParamsBase(usageCache.get(usageString));
+    }
+
+    /**
+     * Gets the shared, unmodifiable ParamsBase for the given usage string. The
+     * same object is returned for the same usage string while it remains in
+     * the {@link #getUsageCache() usage cache}, and its processors can't be
+     * changed. This avoids parsing the usage string, and creating a new
+     * ParamsBase, every time it is used.
+     *
+     * @param usageString the command usage string to parse
+     * @return the shared ParamsBase for the given usage string
+     * @throws IllegalArgumentException if the usage string is invalid
+     * @see #fromUsageString(String)
+     */
+    public static SimpleParamsBase cached(String usageString) {
+        return usageCache.get(usageString);
+    }
+
+    /**
+     * Gets the {@link UsageCache} of compiled usage strings used by {@link
+     * #fromUsageString(String)} and {@link #cached(String)}, for example to
+     * read its statistics.
+     *
+     * @return the shared usage cache
+     */
+    public static UsageCache getUsageCache() {
+        return usageCache;
+    }
+
+    /**
+     * Parses the given usage string into a new shared ParamsBase, for {@link
+     * UsageCache}.
+     */
+    static SimpleParamsBase compile(String usageString) {
         // list of parameters parsed
         List<ParamInfo> res = new ArrayList<>();
         // current parse status
@@ -217,31 +910,26 @@ public final class SimpleParamsBase implements ParamsBase {
         StringBuilder builder = null;
         // whether we've reached the first param
         boolean reachedFirst = false;
-        // the amount of arguments before the first param
-        int before = 0;
-        // whether we've passed the initial command
-        boolean passedCommand = false;
         // the amount of required arguments
         int amtRequired = 0;
         // flags present
         List<FlagInfo> requiredFlags = new ArrayList<>();
+        // names of all flags
+        List<String> flags = new ArrayList<>();
 
         final char[] characters = usageString.toCharArray();
         for (int i = 0; i < characters.length; i++) {
             final char ch = characters[i];
 
             if (!reachedFirst && ch == ARGUMENT_SEPARATOR) {
-                if (passedCommand) {
-                    before++;
-                }
-                passedCommand = true;
+                // words before the first param are split by words()
                 continue;
             }
 
             if (status == REQUIRED_PARAMETER
                     && ch == REQUIRED_CLOSE_DENOTATION) {
                 status = NO_PARAMETER;
-                res.add(new ParamInfo(builder.toString(), false));
+                addParam(res, builder.toString(), false);
                 amtRequired++;
                 builder = null;
                 continue;
@@ -250,7 +938,7 @@ public final class SimpleParamsBase implements ParamsBase {
             if (status == OPTIONAL_PARAMETER
                     && ch == OPTIONAL_CLOSE_DENOTATION) {
                 status = NO_PARAMETER;
-                res.add(new ParamInfo(builder.toString(), true));
+                addParam(res, builder.toString(), true);
                 builder = null;
                 continue;
             }
@@ -276,6 +964,7 @@ public final class SimpleParamsBase implements ParamsBase {
                     if (!isOptional) {
                         requiredFlags.add(new FlagInfo(String.valueOf(next)));
                     }
+                    flags.add(String.valueOf(next));
 
                     i += 2;
                     status = NO_PARAMETER;
@@ -298,7 +987,73 @@ public final class SimpleParamsBase implements ParamsBase {
             }
         }
 
-        return new SimpleParamsBase(res, before, amtRequired, requiredFlags);
+        return new SimpleParamsBase(res, words(usageString), amtRequired,
+                requiredFlags, flags, true);
+    }
+
+    /**
+     * Splits the part of the given usage string before the first parameter
+     * into words.
+     */
+    private static List<String> words(String usageString) {
+        List<String> words = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= usageString.length(); i++) {
+            char ch = i == usageString.length() ? ARGUMENT_SEPARATOR
+                    : usageString.charAt(i);
+            boolean end = ch == REQUIRED_OPEN_DENOTATION
+                    || ch == OPTIONAL_OPEN_DENOTATION;
+            if (ch == ARGUMENT_SEPARATOR || end) {
+                if (i > start) {
+                    words.add(usageString.substring(start, i));
+                }
+                if (end) {
+                    break;
+                }
+                start = i + 1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Adds a parameter parsed from a usage string, which is variadic if it has
+     * the form {@code name:type...}.
+     *
+     * @throws IllegalArgumentException if the parameter follows a variadic
+     *         parameter, or has an unsupported variadic type
+     */
+    private static void addParam(List<ParamInfo> params, String spec,
+            boolean optional) {
+        if (!params.isEmpty() && params.get(params.size() - 1).isVariadic()) {
+            throw new IllegalArgumentException("Parameter " + spec
+                    + " follows a variadic parameter");
+        }
+        int separator = spec.lastIndexOf(TYPE_SEPARATOR);
+        if (!spec.endsWith(VARIADIC_SUFFIX) || separator < 0) {
+            params.add(new ParamInfo(spec, optional));
+            return;
+        }
+
+        String type = spec.substring(separator + 1,
+                spec.length() - VARIADIC_SUFFIX.length());
+        Class<?> variadicType;
+        switch (type) {
+            case "int":
+                variadicType = int.class;
+                break;
+            case "long":
+                variadicType = long.class;
+                break;
+            case "double":
+                variadicType = double.class;
+                break;
+            default:
+                throw new IllegalArgumentException(
+                        "Unsupported variadic type: " + type);
+        }
+        params.add(new ParamInfo(spec.substring(0, separator), optional,
+                variadicType));
     }
 
     /**
@@ -0,0 +1,257 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package pw.ollie.args.params.impl;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * A bounded, thread-safe cache of compiled {@link SimpleParamsBase}s keyed by
+ * usage string, so that a usage string is only parsed once however often it
+ * is used. Identical usage strings give the same unmodifiable {@link
+ * SimpleParamsBase}, which can't have processors registered.
+ *
+ * The cache is a segmented LRU: a usage string is first cached in a
+ * probationary segment, and moves to a protected segment if it is used
+ * again. When the cache is full, the least recently used probationary entry
+ * is evicted, so a burst of usage strings which are only used once can't
+ * evict the frequently used ones. Each usage string is compiled at most once
+ * while it is cached, even if many threads miss it at the same time: the
+ * other threads wait for the first to finish.
+ */
+public final class UsageCache {
+    /**
+     * The default maximum amount of cached usage strings.
+     */
+    public static final int DEFAULT_CAPACITY = 512;
+
+    /**
+     * The maximum amount of cached usage strings.
+     */
+    private final int capacity;
+    /**
+     * The maximum amount of usage strings in the protected segment.
+     */
+    private final int protectedCapacity;
+    /**
+     * Entries which have only been used once since being cached, least
+     * recently used first.
+     */
+    private final LinkedHashMap<String, Entry> probation;
+    /**
+     * Entries which have been used more than once, least recently used first.
+     */
+    private final LinkedHashMap<String, Entry> protectedSegment;
+
+    /**
+     * The amount of lookups which found a cached entry.
+     */
+    private long hits;
+    /**
+     * The amount of lookups which didn't find a cached entry.
+     */
+    private long misses;
+    /**
+     * The amount of entries which have been evicted.
+     */
+    private long evictions;
+
+    /**
+     * Creates a new {@link UsageCache} with the default capacity.
+     */
+    public UsageCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new {@link UsageCache} holding up to the given amount of
+     * usage strings.
+     *
+     * @param capacity the maximum amount of cached usage strings
+     */
+    public UsageCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.capacity = capacity;
+        this.protectedCapacity = Math.max(1, capacity * 4 / 5);
+        this.probation = new LinkedHashMap<>(16, 0.75f, true);
+        this.protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Gets the compiled {@link SimpleParamsBase} for the given usage string,
+     * compiling and caching it if it isn't cached.
+     *
+     * @param usageString the usage string to get the compiled base for
+     * @return the unmodifiable {@link SimpleParamsBase} for the usage string
+     * @throws IllegalArgumentException if the usage string is invalid
+     * @see SimpleParamsBase#fromUsageString(String)
+     */
+    public SimpleParamsBase get(String usageString) {
+        if (usageString == null) {
+            throw new IllegalArgumentException();
+        }
+        Entry entry = lookup(usageString);
+        // compiles the usage string if no other thread has yet
+        entry.run();
+        try {
+            return entry.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            remove(usageString, entry);
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+
+    /**
+     * Gets the maximum amount of usage strings this cache can hold.
+     *
+     * @return this cache's capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the amount of usage strings currently cached.
+     *
+     * @return the amount of cached usage strings
+     */
+    public synchronized int size() {
+        return probation.size() + protectedSegment.size();
+    }
+
+    /**
+     * Gets the amount of lookups which found a cached usage string.
+     *
+     * @return the amount of cache hits
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Gets the amount of lookups which didn't find a cached usage string, and
+     * so compiled it.
+     *
+     * @return the amount of cache misses
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Gets the amount of usage strings which have been evicted to make space
+     * for others.
+     *
+     * @return the amount of evictions
+     */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    /**
+     * Gets the proportion of lookups which found a cached usage string.
+     *
+     * @return the hit rate between 0 and 1, or 1 if there have been no lookups
+     */
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 1 : (double) hits / total;
+    }
+
+    /**
+     * Removes all cached usage strings. Statistics are kept.
+     */
+    public synchronized void clear() {
+        probation.clear();
+        protectedSegment.clear();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "UsageCache{size=" + size() + ", capacity=" + capacity
+                + ", hits=" + hits + ", misses=" + misses + ", evictions="
+                + evictions + '}';
+    }
+
+    private synchronized Entry lookup(String usageString) {
+        Entry entry = protectedSegment.get(usageString);
+        if (entry != null) {
+            hits++;
+            return entry;
+        }
+        entry = probation.remove(usageString);
+        if (entry != null) {
+            // used again, so promote it
+            hits++;
+            protectedSegment.put(usageString, entry);
+            if (protectedSegment.size() > protectedCapacity) {
+                Iterator<Map.Entry<String, Entry>> eldest = protectedSegment
+                        .entrySet().iterator();
+                Map.Entry<String, Entry> demoted = eldest.next();
+                eldest.remove();
+                probation.put(demoted.getKey(), demoted.getValue());
+            }
+            return entry;
+        }
+
+        misses++;
+        entry = new Entry(usageString);
+        probation.put(usageString, entry);
+        if (probation.size() + protectedSegment.size() > capacity) {
+            Iterator<Entry> eldest = probation.values().iterator();
+            eldest.next();
+            eldest.remove();
+            evictions++;
+        }
+        return entry;
+    }
+
+    private synchronized void remove(String usageString, Entry entry) {
+        // only if it wasn't replaced since
+        if (!probation.remove(usageString, entry)) {
+            protectedSegment.remove(usageString, entry);
+        }
+    }
+
+    /**
+     * A cached usage string, compiled by the first thread to run it.
+     */
+    private static final class Entry extends FutureTask<SimpleParamsBase> {
+        Entry(String usageString) {
+            super(() -> SimpleParamsBase.compile(usageString));
+        }
+    }
+}
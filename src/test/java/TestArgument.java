@@ -0,0 +1,313 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+import pw.ollie.args.Argument;
+import pw.ollie.args.Arguments;
+import pw.ollie.args.Converters;
+import pw.ollie.args.StringCache;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestArgument {
+    private static final String[] INPUTS = {
+            "0", "-0", "+7", "-", "+", "", "12a", "2147483647", "2147483648",
+            "-2147483648", "-2147483649", "32767", "32768", "-32768",
+            "9223372036854775807", "9223372036854775808",
+            "-9223372036854775808", "-09223372036854775808",
+            "-9223372036854775809", "00012", "\u0663\u0664", " 1",
+            "1.5", ".5", "5.", ".", "1e5", "1e", "e5", "1.5E-3", "-1.5e+3",
+            "1d", "1f", "1.0F", "1x", "NaN", "-Infinity", "Infinityf",
+            "nan", "0x1p3", "0x1.8P-1", "0x.8p1", "0x1", "0x.p1", "0xp1",
+            " 2.5 ", "\t3\n", "1e99999", "123456789012345678901234567890"
+    };
+
+    @Test
+    public void testNumericValidation() {
+        for (String input : INPUTS) {
+            check(new Argument(input), input);
+        }
+    }
+
+    @Test
+    public void testLongMinValueOutOfRange() {
+        // Long.MIN_VALUE is also the sentinel for invalid values
+        String input = "-9223372036854775808";
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        Argument[] args = {
+                new Argument(input), new Argument(input, true),
+                Arguments.parse(bytes, 0, bytes.length).get(0)
+        };
+        for (Argument arg : args) {
+            Assert.assertEquals(Long.MIN_VALUE, arg.asLong());
+            Assert.assertFalse(valid(arg::asInt));
+            Assert.assertFalse(valid(arg::asShort));
+            Assert.assertFalse(arg.tryAsInt().isPresent());
+            Assert.assertEquals(-1, arg.asInt(-1));
+        }
+    }
+
+    @Test
+    public void testLongDigitStrings() {
+        // covers the eight digits at a time path, including digits which
+        // aren't ASCII and characters next to '0' and '9'
+        char[] alphabet = "0123456789/:a \u0663".toCharArray();
+        Random random = new Random(7);
+        StringBuilder line = new StringBuilder();
+        for (int n = 0; n < 200000; n++) {
+            StringBuilder builder = new StringBuilder();
+            int sign = random.nextInt(4);
+            if (sign == 0) {
+                builder.append('-');
+            } else if (sign == 1) {
+                builder.append('+');
+            }
+            int length = random.nextInt(22);
+            boolean clean = random.nextInt(4) != 0;
+            for (int i = 0; i < length; i++) {
+                builder.append(clean ? (char) ('0' + random.nextInt(10))
+                        : alphabet[random.nextInt(alphabet.length)]);
+            }
+            String input = builder.toString();
+            Argument arg = new Argument(input);
+            Assert.assertEquals(input, valid(() -> Long.parseLong(input)), arg.isLong());
+            Assert.assertEquals(input, valid(() -> Integer.parseInt(input)), arg.isInt());
+            if (arg.isLong()) {
+                Assert.assertEquals(input, Long.parseLong(input), arg.asLong());
+            }
+            if (n < 2000 && clean && length > 0 && length < 19 && sign > 1) {
+                line.append(input).append(' ');
+            }
+        }
+
+        Arguments args = Arguments.parse(line);
+        long[] values = args.getLongs(0, true);
+        Assert.assertEquals(args.length(), values.length);
+        for (int i = 0; i < values.length; i++) {
+            Assert.assertEquals(Long.parseLong(args.getString(i)), values[i]);
+        }
+    }
+
+    @Test
+    public void testMemoizedValues() {
+        for (String input : INPUTS) {
+            Argument arg = new Argument(input, true);
+            Assert.assertTrue(arg.isMemoized());
+            // the second time reads back the memoized values
+            check(arg, input);
+            check(arg, input);
+            Assert.assertTrue(arg.substring(0).isMemoized());
+        }
+
+        Argument tooBig = new Argument("2147483648", true);
+        Assert.assertEquals(2147483648L, tooBig.asLong());
+        Assert.assertFalse(valid(tooBig::asInt));
+    }
+
+    @Test
+    public void testConverters() {
+        Assert.assertEquals(Integer.valueOf(12), new Argument("12").as(int.class));
+        Assert.assertEquals(new BigInteger("123456789012345678901234567890"),
+                new Argument("123456789012345678901234567890").as(BigInteger.class));
+        UUID uuid = UUID.randomUUID();
+        Assert.assertEquals(uuid, new Argument(uuid.toString()).as(UUID.class));
+        Assert.assertEquals(TimeUnit.SECONDS, new Argument("SECONDS").as(TimeUnit.class));
+        Assert.assertEquals(TimeUnit.SECONDS, new Argument("seconds").as(TimeUnit.class));
+        Assert.assertFalse(new Argument("fortnights").tryAs(TimeUnit.class).isPresent());
+        Assert.assertEquals(Duration.ofSeconds(90), new Argument("PT1M30S").as(Duration.class));
+        Assert.assertEquals(Duration.ofSeconds(90), new Argument("90s").as(Duration.class));
+        Assert.assertEquals(Duration.ofMillis(250), new Argument("250ms").as(Duration.class));
+        Assert.assertEquals(Duration.ofDays(-2), new Argument("-2d").as(Duration.class));
+        Assert.assertFalse(new Argument("10 parsecs").tryAs(Duration.class).isPresent());
+        // overflowing amounts are rejected like overflowing ISO-8601 durations
+        Assert.assertFalse(new Argument("99999999999999999d").tryAs(Duration.class).isPresent());
+        Assert.assertFalse(new Argument("9223372036854775807h").tryAs(Duration.class).isPresent());
+        Assert.assertFalse(new Argument("9223372036854775807us").tryAs(Duration.class).isPresent());
+        Assert.assertFalse(new Argument("PT99999999999999999999H").tryAs(Duration.class).isPresent());
+        Assert.assertFalse(new Argument("x").tryAs(boolean.class).isPresent());
+        // resolved from LocalDate.parse(CharSequence)
+        Assert.assertEquals(LocalDate.of(2019, 3, 14), new Argument("2019-03-14").as(LocalDate.class));
+        Assert.assertFalse(new Argument("2019-13-14").tryAs(LocalDate.class).isPresent());
+        try {
+            new Argument("x").as(Runnable.class);
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+        }
+
+        AtomicInteger conversions = new AtomicInteger();
+        Converters.register(Point.class, arg -> {
+            conversions.incrementAndGet();
+            String[] parts = arg.get().split(",");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException(arg.get());
+            }
+            return new Point(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+        }, 16);
+        try {
+            Point point = new Argument("3,4").as(Point.class);
+            Assert.assertEquals(4, point.y);
+            Assert.assertSame(point, new Argument("3,4").as(Point.class));
+            Assert.assertEquals(1, conversions.get());
+            Assert.assertFalse(new Argument("3").tryAs(Point.class).isPresent());
+        } finally {
+            Converters.unregister(Point.class);
+        }
+        Assert.assertNull(Converters.get(Point.class));
+    }
+
+    @Test
+    public void testStringCache() {
+        StringCache original = StringCache.getShared();
+        try {
+            StringCache.setShared(new StringCache(64, 8));
+            Arguments args = Arguments.parse("go go a-very-long-token a-very-long-token");
+            Assert.assertEquals("go", args.get(0).toString());
+            Assert.assertSame(args.get(0).getIntern(), args.get(1).getIntern());
+            Assert.assertSame(args.get(0).getIntern(), new Argument(new String("go")).toString());
+            Assert.assertEquals(args.get(2).getIntern(), args.get(3).getIntern());
+            Assert.assertNotSame(args.get(2).getIntern(), args.get(3).getIntern());
+
+            StringCache.setShared(null);
+            Assert.assertNotSame(new Argument(new String("go")).getIntern(),
+                    new Argument(new String("go")).getIntern());
+        } finally {
+            StringCache.setShared(original);
+        }
+
+        StringCache cache = new StringCache(100, 16);
+        Assert.assertEquals(128, cache.size());
+        for (int i = 0; i < 10000; i++) {
+            cache.canonicalize("garbage" + i);
+        }
+        String hot = cache.canonicalize(new String("hot"));
+        Assert.assertSame(hot, cache.canonicalize(new String("hot")));
+        cache.clear();
+        Assert.assertNotSame(hot, cache.canonicalize(new String("hot")));
+    }
+
+    @Test
+    public void testViews() {
+        String line = "Hello wORLD NaN caf\u00e9 ma\u00dfe 0x1P3 -Nan";
+        Arguments fromChars = Arguments.parse(line);
+        Arguments fromBytes = Arguments.parse(line.getBytes(StandardCharsets.UTF_8), 0,
+                line.getBytes(StandardCharsets.UTF_8).length);
+        String[] words = line.split(" ");
+        for (int i = 0; i < words.length; i++) {
+            String word = words[i];
+            for (Argument arg : new Argument[] {new Argument(word), fromChars.get(i), fromBytes.get(i),
+                    new Argument("[" + word + "]", 1, word.length())}) {
+                checkView(word, arg);
+                checkView(word.toLowerCase(), arg.toLowerCase());
+                checkView(word.toUpperCase(), arg.toUpperCase());
+                checkView(word.toUpperCase().toLowerCase(), arg.toUpperCase().toLowerCase());
+                checkView(word.substring(1), arg.substring(1));
+                checkView(word.substring(1, word.length() - 1).toUpperCase(),
+                        arg.substring(1, word.length() - 1).toUpperCase());
+                checkView(word.concat("!"), arg.concat("!"));
+                checkView(word.toLowerCase().concat("-x").substring(2).toUpperCase(),
+                        arg.toLowerCase().concat("-x").substring(2).toUpperCase());
+            }
+        }
+        try {
+            new Argument("abc").substring(2, 4);
+            Assert.fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+    }
+
+    private static void checkView(String expected, Argument view) {
+        Argument plain = new Argument(expected);
+        Assert.assertEquals(expected.length(), view.length());
+        for (int i = 0; i < expected.length(); i++) {
+            Assert.assertEquals(expected, expected.charAt(i), view.charAt(i));
+        }
+        Assert.assertEquals(expected.hashCode(), view.hashCode());
+        Assert.assertEquals(plain, view);
+        Assert.assertEquals(view, plain);
+        Assert.assertEquals(plain.isDouble(), view.isDouble());
+        Assert.assertEquals(expected, view.get());
+    }
+
+    public static final class Point {
+        final int x;
+        final int y;
+
+        Point(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    private static void check(Argument arg, String input) {
+        Assert.assertEquals("INT " + input, valid(() -> Integer.parseInt(input)), arg.isInt());
+        Assert.assertEquals("LONG " + input, valid(() -> Long.parseLong(input)), arg.isLong());
+        Assert.assertEquals("SHORT " + input, valid(() -> Short.parseShort(input)), arg.isShort());
+        Assert.assertEquals("DBL " + input, valid(() -> Double.parseDouble(input)), arg.isDouble());
+        Assert.assertEquals("FLT " + input, valid(() -> Float.parseFloat(input)), arg.isFloat());
+
+        if (arg.isInt()) {
+            Assert.assertEquals("INT " + input, Integer.parseInt(input), arg.asInt());
+            Assert.assertEquals("INT " + input, Integer.parseInt(input), arg.tryAsInt().getAsInt());
+        } else {
+            Assert.assertFalse("INT " + input, arg.tryAsInt().isPresent());
+            Assert.assertEquals("INT " + input, -1, arg.asInt(-1));
+            Assert.assertFalse("INT " + input, valid(arg::asInt));
+        }
+        if (arg.isShort()) {
+            Assert.assertEquals("SHORT " + input, Short.parseShort(input), arg.asShort());
+        } else {
+            Assert.assertFalse("SHORT " + input, valid(arg::asShort));
+        }
+        if (arg.isLong()) {
+            Assert.assertEquals("LONG " + input, Long.parseLong(input), arg.asLong());
+            Assert.assertEquals("LONG " + input, Long.parseLong(input), arg.tryAsLong().getAsLong());
+        } else {
+            Assert.assertFalse("LONG " + input, arg.tryAsLong().isPresent());
+            Assert.assertEquals("LONG " + input, 3L, arg.asLong(3L));
+        }
+        if (arg.isDouble()) {
+            Assert.assertEquals("DBL " + input, Double.parseDouble(input), arg.asDouble(), 0);
+            Assert.assertEquals("DBL " + input, Double.parseDouble(input), arg.tryAsDouble().getAsDouble(), 0);
+        } else {
+            Assert.assertFalse("DBL " + input, arg.tryAsDouble().isPresent());
+        }
+    }
+
+    private static boolean valid(Runnable parse) {
+        try {
+            parse.run();
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
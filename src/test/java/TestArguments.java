@@ -0,0 +1,377 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import pw.ollie.args.Arguments;
+import pw.ollie.args.params.ParamKey;
+import pw.ollie.args.params.Parameter;
+import pw.ollie.args.params.Params;
+import pw.ollie.args.params.impl.RecyclingParser;
+import pw.ollie.args.params.impl.SimpleParams;
+import pw.ollie.args.params.impl.SimpleParamsBase;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+
+public class TestArguments {
+    @Test
+    public void testLazyViews() {
+        Arguments args = new Arguments(
+                "a", "--Verbose", "-f", "value", "b", "-", "--", "-last");
+
+        Assert.assertEquals("LEN: ALL", 8, args.length());
+        Assert.assertEquals("LEN: POS", 4, args.length(false));
+        Assert.assertEquals("POS", "a", args.getString(0, false));
+        Assert.assertEquals("POS", "b", args.getString(1, false));
+        Assert.assertEquals("POS", "-", args.getString(2, false));
+        Assert.assertEquals("POS", "--", args.getString(3, false));
+        Assert.assertSame("VIEW", args.get(4), args.get(1, false));
+
+        Assert.assertTrue("NVF", args.hasNonValueFlag("verbose"));
+        Assert.assertTrue("NVF: LAST", args.hasNonValueFlag("LAST"));
+        Assert.assertFalse("NVF", args.hasNonValueFlag("f"));
+        Assert.assertTrue("VF", args.hasValueFlag("F"));
+        Assert.assertEquals("VF", "value", args.getValueFlag("f").getRawValue());
+        Assert.assertSame("VF", args.getValueFlag("f"), args.getValueFlag("F"));
+        Assert.assertNull("VF", args.getValueFlag("verbose"));
+    }
+
+    @Test
+    public void testParseLine() {
+        Arguments args = Arguments.parse(
+                "  say \"hello world\" -f 'it''s' --quiet a\\ b x\"y z\" \"-n\"  ");
+
+        Assert.assertEquals("LEN", 8, args.length());
+        Assert.assertEquals("TOK", "say", args.getString(0));
+        Assert.assertEquals("TOK: QUOTED", "hello world", args.getString(1));
+        Assert.assertEquals("TOK: FLAG", "its", args.getValueFlag("f").getRawValue());
+        Assert.assertTrue("TOK: NVF", args.hasNonValueFlag("quiet"));
+        Assert.assertEquals("TOK: ESC", "a b", args.getString(5));
+        Assert.assertEquals("TOK: MID", "xy z", args.getString(6));
+        Assert.assertEquals("TOK: POS", "-n", args.getString(4, false));
+        Assert.assertEquals("TOK: POS", 5, args.length(false));
+        Assert.assertEquals("TOK: NUM", 0, Arguments.parse("").length());
+        Assert.assertEquals("TOK: EMPTY", "", Arguments.parse("a '' b").getString(1));
+    }
+
+    @Test
+    public void testReset() {
+        Arguments args = new Arguments("a", "-f", "one", "b");
+        Assert.assertEquals("ONE", "one", args.getValueFlag("f").getRawValue());
+
+        Assert.assertSame("RESET", args, args.reset("--g", "c", "-f", "two", "d", "e"));
+        Assert.assertEquals("LEN", 6, args.length());
+        Assert.assertEquals("POS", 3, args.length(false));
+        Assert.assertEquals("POS", "e", args.getString(2, false));
+        Assert.assertEquals("TWO", "two", args.getValueFlag("f").getRawValue());
+        Assert.assertTrue("NVF", args.hasNonValueFlag("g"));
+
+        args.reset("x");
+        Assert.assertFalse("CLEARED", args.hasValueFlag("f"));
+        Assert.assertEquals("X", "x", args.get(0).get());
+    }
+
+    @Test
+    public void testRecyclingParser() {
+        RecyclingParser parser = new RecyclingParser(
+                SimpleParamsBase.fromUsageString("/cmd <a> [b]"));
+
+        Arguments first = parser.parse("1", "2");
+        Params params = first.getParams();
+        Assert.assertTrue("VALID", params.valid());
+        Assert.assertEquals("B", 2, params.get("b").asInt());
+
+        Arguments second = parser.parse();
+        Assert.assertSame("ARGS", first, second);
+        Assert.assertSame("PARAMS", params, second.getParams());
+        Assert.assertFalse("INVALID", params.valid());
+        Assert.assertFalse("CLEARED", params.has("b"));
+
+        // values are refilled in place
+        parser.parse("1", "2");
+        Parameter a = params.get("a");
+        Assert.assertEquals("A", 1, a.asInt());
+        parser.parse("3");
+        Assert.assertSame("REFILLED", a, params.get("a"));
+        Assert.assertEquals("A", 3, a.asInt());
+        Assert.assertEquals("A", "3", a.get());
+    }
+
+    @Test
+    public void testRecyclingParserAllocation() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean()
+                instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported()
+                && threads.isThreadAllocatedMemoryEnabled());
+
+        RecyclingParser parser = new RecyclingParser(
+                SimpleParamsBase.fromUsageString("/c <x> <y> [z] <-f flag>"));
+        String[] line = {"a", "b", "c", "-f", "v"};
+        long thread = Thread.currentThread().getId();
+        for (int i = 0; i < 200000; i++) {
+            parser.parse(line);
+        }
+        // the best of a few rounds, in case compilation is still catching up
+        long least = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < 10000; i++) {
+                parser.parse(line);
+            }
+            least = Math.min(least, threads.getThreadAllocatedBytes(thread) - before);
+        }
+        Assert.assertTrue("ALLOCATED " + least, least < 10000);
+        Assert.assertEquals("b", parser.parse(line).getParams().get("y").get());
+    }
+
+    @Test
+    public void testVariadicParams() {
+        SimpleParamsBase base = SimpleParamsBase.fromUsageString("/setblocks <block> <ids:long...>");
+        Assert.assertEquals(long.class, base.getVariadic().getVariadicType());
+
+        Params params = base.createParams(Arguments.parse("stone 1 -f x 2 9223372036854775807"));
+        Assert.assertTrue(params.valid());
+        Assert.assertEquals("stone", params.get("block").get());
+        Assert.assertArrayEquals(new long[] {1, 2, Long.MAX_VALUE}, params.getLongs("ids"));
+        Assert.assertTrue(params.has("ids"));
+        Assert.assertTrue(params.parameters().contains("ids"));
+        Assert.assertNull(params.getInts("ids"));
+        Assert.assertNull(params.get("ids"));
+
+        Assert.assertFalse(base.createParams(Arguments.parse("stone")).valid());
+        Params invalid = base.createParams(Arguments.parse("stone 1 two 3"));
+        Assert.assertFalse(invalid.valid());
+        Assert.assertNull(invalid.getLongs("ids"));
+
+        SimpleParamsBase optional = SimpleParamsBase.fromUsageString("/scores [scores:double...]");
+        Params none = optional.createParams(new Arguments());
+        Assert.assertTrue(none.valid());
+        Assert.assertFalse(none.has("scores"));
+        Assert.assertArrayEquals(new double[] {1.5, 2e3},
+                optional.createParams(new Arguments("1.5", "2e3")).getDoubles("scores"), 0);
+
+        SimpleParams reused = SimpleParamsBase.fromUsageString("/ints <ints:int...>")
+                .createParams(new Arguments("1", "2"));
+        Assert.assertArrayEquals(new int[] {1, 2}, reused.getInts("ints"));
+        reused.getBase().createParams(new Arguments("3000000000"), reused);
+        Assert.assertFalse(reused.valid());
+        Assert.assertNull(reused.getInts("ints"));
+
+        for (String usage : new String[] {"/a <ids:long...> <other>", "/a <ids:byte...>"}) {
+            try {
+                SimpleParamsBase.fromUsageString(usage);
+                Assert.fail(usage);
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void testParamKeys() {
+        SimpleParamsBase base = SimpleParamsBase.fromUsageString("/give <player> <item> [amount]");
+        ParamKey item = base.key("item");
+        ParamKey amount = base.key("amount");
+        Assert.assertEquals(1, item.getSlot());
+        Assert.assertEquals(3, base.keys().size());
+
+        Params params = base.createParams(new Arguments("ollie", "stone"));
+        Assert.assertEquals("stone", params.get(item).get());
+        Assert.assertTrue(params.has(item));
+        Assert.assertFalse(params.has(amount));
+        Assert.assertNull(params.get(amount));
+        // bases from the same usage string share keys
+        Params other = SimpleParamsBase.fromUsageString("/give <player> <item> [amount]")
+                .createParams(new Arguments("a", "b", "3"));
+        Assert.assertEquals(3, other.get(amount).asInt());
+        try {
+            SimpleParamsBase.fromUsageString("/take <player> <item>")
+                    .createParams(new Arguments("a", "b")).get(item);
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            base.key("missing");
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+        }
+
+        // many names, names with equal hashes, and a repeated name
+        StringBuilder usage = new StringBuilder("/many");
+        for (int i = 0; i < 300; i++) {
+            usage.append(" <p").append(i).append('>');
+        }
+        usage.append(" <Aa> <BB> <p7>");
+        String[] values = new String[303];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = "v" + i;
+        }
+        SimpleParamsBase many = SimpleParamsBase.fromUsageString(usage.toString());
+        SimpleParams manyParams = many.createParams(new Arguments(values));
+        // as with a map, the repeated name only counts once
+        Assert.assertFalse(manyParams.valid());
+        for (int i = 0; i < 300; i++) {
+            Assert.assertEquals(i == 7 ? "v302" : "v" + i, manyParams.get("p" + i).get());
+        }
+        Assert.assertEquals("v300", manyParams.get("Aa").get());
+        Assert.assertEquals("v301", manyParams.get(many.key("BB")).get());
+        Assert.assertNull(manyParams.get("p300"));
+        Assert.assertEquals(302, manyParams.parameters().size());
+        Assert.assertEquals(302, manyParams.entries().size());
+    }
+
+    @Test
+    public void testValidation() {
+        SimpleParamsBase base = SimpleParamsBase.fromUsageString(
+                "/ban <player> <-t time> [reason] [-s silent]");
+        String[][] lines = {
+                {"steve", "-t", "1d"}, {"steve", "-t", "1d", "spam"},
+                {"steve"}, {"-t", "1d"}, {"steve", "-s", "yes"},
+                {"steve", "reason", "-T", "2h", "extra"}, {}
+        };
+        boolean[] expected = {true, true, false, false, false, true, false};
+        for (int i = 0; i < lines.length; i++) {
+            Arguments args = new Arguments(lines[i]);
+            String line = String.join(" ", lines[i]);
+            Assert.assertEquals(line, expected[i], base.accepts(args));
+            // invalid params still have the values which were present
+            Assert.assertEquals(line, expected[i], base.createParams(args).valid());
+            Assert.assertEquals(line, expected[i], base.createValidParams(args) != null);
+        }
+        Assert.assertEquals("steve", base.createParams(new Arguments("steve")).get("player").get());
+
+        SimpleParamsBase variadic = SimpleParamsBase.fromUsageString("/cmd x <a> [ids:int...]");
+        Assert.assertTrue(variadic.accepts(new Arguments("x", "a")));
+        Assert.assertTrue(variadic.accepts(new Arguments("x", "a", "1", "2")));
+        Assert.assertFalse(variadic.accepts(new Arguments("x", "a", "1", "two")));
+        Assert.assertFalse(variadic.accepts(new Arguments("x")));
+        Assert.assertNull(variadic.createValidParams(new Arguments("x", "a", "z")));
+    }
+
+    @Test
+    public void testParamsViews() {
+        SimpleParamsBase base = SimpleParamsBase.fromUsageString("/tp <x> <y> [z] [world]");
+        SimpleParams params = base.createParams(new Arguments("1", "1", "5"));
+        Set<String> names = params.parameters();
+        Assert.assertEquals(Arrays.asList("x", "y", "z"), new ArrayList<>(names));
+        Assert.assertTrue(names.contains("z"));
+        Assert.assertFalse(names.contains("world"));
+        Assert.assertEquals(3, params.entries().size());
+        // x and y are equal, so only one of them is in the set
+        Assert.assertEquals(2, params.values().size());
+        Assert.assertEquals(new HashSet<>(params.values()), params.values());
+        Assert.assertEquals(2, params.values().stream().distinct().count());
+
+        List<String> visited = new ArrayList<>();
+        params.forEach((info, value) -> visited.add(info.getName() + "=" + value.get()));
+        Assert.assertEquals(Arrays.asList("x=1", "y=1", "z=5"), visited);
+
+        Spliterator<String> spliterator = names.spliterator();
+        Assert.assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.ORDERED));
+        Assert.assertEquals(3, spliterator.getExactSizeIfKnown());
+
+        try {
+            names.clear();
+            Assert.fail();
+        } catch (UnsupportedOperationException expected) {
+        }
+
+        // the views are live, so they follow the params when refilled
+        Assert.assertSame(params, base.createParams(new Arguments("1", "2", "3", "4"), params));
+        Assert.assertSame(names, params.parameters());
+        Assert.assertEquals(4, names.size());
+        Assert.assertEquals(4, params.values().size());
+    }
+
+    @Test
+    public void testParseSeparators() {
+        // only ASCII whitespace separates tokens, whether parsed from chars or bytes
+        String line = "a\u3000b \u00e9\u2028c\td\u000be\u00a0f";
+        String[] expected = {"a\u3000b", "\u00e9\u2028c", "d", "e\u00a0f"};
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        Assert.assertArrayEquals("CHARS", expected, Arguments.parse(line).toStringArray());
+        Assert.assertArrayEquals("BYTES", expected, Arguments.parse(bytes, 0, bytes.length).toStringArray());
+    }
+
+    @Test
+    public void testParseBytes() {
+        byte[] bytes = "xx give \"Zo\u00eb Smith\" -amount 64 --\u00dcn\u00efcode -ratio 2.5e-3 \u00e9"
+                .getBytes(StandardCharsets.UTF_8);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip().position(3);
+
+        for (Arguments args : new Arguments[] {
+                Arguments.parse(bytes, 3, bytes.length - 3),
+                Arguments.parse(direct)}) {
+            Assert.assertEquals("LEN", 8, args.length());
+            Assert.assertEquals("TOK", "give", args.getString(0));
+            Assert.assertEquals("TOK: UTF8", "Zo\u00eb Smith", args.getString(1));
+            Assert.assertEquals("INT", 64, args.getValueFlag("AMOUNT").getValue().asInt());
+            Assert.assertEquals("DBL", 2.5e-3, args.getValueFlag("ratio").getValue().asDouble(), 0);
+            Assert.assertTrue("NVF: UTF8", args.hasNonValueFlag("\u00fcN\u00cfCODE"));
+            Assert.assertTrue("CHAR", args.get(7).isChar());
+            Assert.assertEquals("CHAR", Character.valueOf('\u00e9'), args.get(7).asChar());
+            Assert.assertFalse("INT", args.get(1).isInt());
+        }
+        Assert.assertEquals("POS", 3, direct.position());
+    }
+
+    @Test
+    public void testExpandArgFiles() throws IOException {
+        Path file = Files.createTempFile("jlibargs", ".args");
+        // mapped files can't be deleted on some platforms while still mapped
+        file.toFile().deleteOnExit();
+
+        StringBuilder contents = new StringBuilder("value\n");
+        for (int i = 0; i < 1000; i++) {
+            contents.append(i).append(i % 10 == 9 ? '\n' : ' ');
+        }
+        contents.append("\"last one\" --all");
+        Files.write(file, contents.toString().getBytes(StandardCharsets.UTF_8));
+
+        Arguments args = Arguments.expandArgFiles(
+                "copy", "-f", "@" + file, "@@home", "@" + file);
+
+        Assert.assertEquals("LEN", 2 + 1003 + 1 + 1003, args.length());
+        Assert.assertEquals("VF", "value", args.getValueFlag("f").getRawValue());
+        Assert.assertEquals("POS", 999, args.get(1000, false).asInt());
+        Assert.assertEquals("POS", "last one", args.getString(1001, false));
+        Assert.assertEquals("ESC", "@home", args.getString(1002, false));
+        Assert.assertEquals("SECOND", "value", args.getString(1003, false));
+        Assert.assertTrue("NVF", args.hasNonValueFlag("all"));
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+import pw.ollie.args.Arguments;
+import pw.ollie.args.BatchParser;
+import pw.ollie.args.params.impl.SimpleParams;
+import pw.ollie.args.params.impl.SimpleParamsBase;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+public class TestBatch {
+    @Test
+    public void testOrder() {
+        List<String[]> batch = new ArrayList<>();
+        List<String> lines = new LinkedList<>();
+        for (int i = 0; i < 10000; i++) {
+            batch.add(new String[] {"set", "-i", String.valueOf(i), "x" + i});
+            lines.add("set -i " + i + " \"x " + i + "\"");
+        }
+
+        try (BatchParser parser = new BatchParser(4, 64)) {
+            List<Arguments> parsed = parser.parseAll(batch);
+            List<Arguments> parsedLines = parser.parseLines(lines);
+            Assert.assertEquals("SIZE", batch.size(), parsed.size());
+            Assert.assertEquals("SIZE", batch.size(), parsedLines.size());
+            for (int i = 0; i < batch.size(); i++) {
+                Assert.assertEquals("ORDER", i, parsed.get(i).getValueFlag("i").getValue().asInt());
+                Assert.assertEquals("ORDER", "x" + i, parsed.get(i).getString(1, false));
+                Assert.assertEquals("LINES", i, parsedLines.get(i).getValueFlag("i").getValue().asInt());
+                Assert.assertEquals("LINES", "x " + i, parsedLines.get(i).getString(1, false));
+            }
+        }
+
+        SimpleParamsBase base = SimpleParamsBase.fromUsageString("/cmd set <-i n> <name>");
+        List<SimpleParams> params = base.createParamsBatch(batch);
+        for (int i = 0; i < batch.size(); i++) {
+            SimpleParams p = params.get(i);
+            Assert.assertTrue("VALID", p.valid());
+            Assert.assertEquals("PARAM", "x" + i, p.get("name").get());
+            Assert.assertSame("ARGS", p, p.getArguments().getParams());
+        }
+        Assert.assertEquals("COMMON", 3, Arguments.parseAll(batch.subList(0, 3)).size());
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+import pw.ollie.args.params.ParamSelector;
+import pw.ollie.args.params.impl.CommandCompleter;
+import pw.ollie.args.params.impl.CommandDispatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestCompleter {
+    @Test
+    public void testComplete() {
+        CommandDispatcher dispatcher = new CommandDispatcher();
+        dispatcher.register("/team <name>");
+        dispatcher.register("/team add <player> [-r role]");
+        dispatcher.register("/team add role <player> <role>");
+        dispatcher.register("/team Apply <-t team>");
+        dispatcher.register("/team list [page]");
+        CommandCompleter completer = new CommandCompleter(dispatcher);
+        completer.registerValues(ParamSelector.named("player"),
+                () -> Arrays.asList("steve", "Alex", "Sam", "alice"), 1, TimeUnit.MINUTES);
+        completer.registerValues(ParamSelector.named("name"),
+                () -> Arrays.asList("red", "azure"), 1, TimeUnit.MINUTES);
+
+        // literal words and values of <name> are both candidates
+        Assert.assertEquals(Arrays.asList("add", "Apply", "azure", "list", "red"),
+                completer.complete("team", ""));
+        Assert.assertEquals(Arrays.asList("add", "Apply", "azure"), completer.complete("/team", "a"));
+        Assert.assertEquals(Arrays.asList("add", "Apply"), completer.complete("team", "a", 2));
+        Assert.assertEquals(Arrays.asList("Alex", "alice", "role", "Sam", "steve"),
+                completer.complete("team", "add "));
+        Assert.assertEquals(Arrays.asList("Sam", "steve"), completer.complete("team", "add s"));
+        Assert.assertEquals(Arrays.asList("Alex", "alice"), completer.complete("team", "add role a"));
+        Assert.assertEquals(Collections.singletonList("-r"), completer.complete("team", "add steve -"));
+        Assert.assertEquals(Collections.singletonList("-t"), completer.complete("team", "Apply -"));
+        Assert.assertEquals(Collections.emptyList(), completer.complete("team", "list 1 "));
+        Assert.assertEquals(Collections.emptyList(), completer.complete("other", ""));
+    }
+
+    @Test
+    public void testValueTtl() throws InterruptedException {
+        CommandDispatcher dispatcher = new CommandDispatcher();
+        dispatcher.register("/msg <player> <message>");
+        CommandCompleter completer = new CommandCompleter(dispatcher);
+        AtomicInteger calls = new AtomicInteger();
+        List<String> online = new ArrayList<>(Collections.singletonList("steve"));
+        completer.registerValues(ParamSelector.named("player"), () -> {
+            calls.incrementAndGet();
+            return online;
+        }, 200, TimeUnit.MILLISECONDS);
+
+        Assert.assertEquals(Collections.singletonList("steve"), completer.complete("msg", "s"));
+        online.add("sam");
+        Assert.assertEquals(Collections.singletonList("steve"), completer.complete("msg", "s"));
+        Assert.assertEquals(1, calls.get());
+        // not a value of <message>
+        Assert.assertEquals(Collections.emptyList(), completer.complete("msg", "steve s"));
+
+        Thread.sleep(300);
+        Assert.assertEquals(Arrays.asList("sam", "steve"), completer.complete("msg", "s"));
+        Assert.assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testLimit() {
+        CommandDispatcher dispatcher = new CommandDispatcher();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            String word = String.format("sub%04d", i);
+            dispatcher.register("/cmd " + word + " <x>");
+            if (word.startsWith("sub12")) {
+                expected.add(word);
+            }
+        }
+        CommandCompleter completer = new CommandCompleter(dispatcher);
+        Assert.assertEquals(expected.subList(0, 10), completer.complete("cmd", "SUB12", 10));
+        Assert.assertEquals(expected, completer.complete("cmd", "sub12"));
+    }
+}
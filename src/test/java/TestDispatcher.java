@@ -0,0 +1,109 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+import pw.ollie.args.Arguments;
+import pw.ollie.args.params.impl.CommandDispatcher;
+import pw.ollie.args.params.impl.SimpleParams;
+import pw.ollie.args.params.impl.SimpleParamsBase;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class TestDispatcher {
+    @Test
+    public void testLiterals() {
+        SimpleParamsBase base = SimpleParamsBase.fromUsageString("/team  add member <player> [role]");
+        Assert.assertEquals("/team", base.getCommand());
+        Assert.assertEquals(Arrays.asList("add", "member"), base.getLiterals());
+        Assert.assertEquals(Collections.emptyList(),
+                SimpleParamsBase.fromUsageString("/team").getLiterals());
+    }
+
+    @Test
+    public void testDispatch() {
+        CommandDispatcher dispatcher = new CommandDispatcher();
+        SimpleParamsBase team = dispatcher.register("/team <name>");
+        SimpleParamsBase add = dispatcher.register("/team add <player>");
+        SimpleParamsBase addRole = dispatcher.register("/team add role <player> <role>");
+        SimpleParamsBase listAll = dispatcher.register("/team list <page> <size>");
+        SimpleParamsBase list = dispatcher.register("/team list [page]");
+        Assert.assertEquals(5, dispatcher.size());
+
+        Assert.assertSame(add, dispatcher.dispatch("team", new Arguments("add", "steve")));
+        Assert.assertSame(add, dispatcher.dispatch("/team", new Arguments("add", "-f", "x", "steve")));
+        Assert.assertSame(addRole, dispatcher.dispatch("team", new Arguments("add", "role", "a", "b")));
+        Assert.assertSame(team, dispatcher.dispatch("team", new Arguments("red")));
+        Assert.assertSame(team, dispatcher.dispatch("team", new Arguments()));
+        // literal words match exactly
+        Assert.assertSame(team, dispatcher.dispatch("team", new Arguments("ADD", "steve")));
+        Assert.assertNull(dispatcher.dispatch("teams", new Arguments("add", "steve")));
+
+        // bases with the same literal words are tried in order
+        Assert.assertSame(list, dispatcher.dispatch("team", new Arguments("list", "2")));
+        Assert.assertSame(listAll, dispatcher.dispatch("team", new Arguments("list", "2", "10")));
+        Assert.assertSame(list, dispatcher.dispatch("team", new Arguments("list")));
+
+        SimpleParams params = dispatcher.createParams("team", Arguments.parse("add role steve admin"));
+        Assert.assertSame(addRole, params.getBase());
+        Assert.assertTrue(params.valid());
+        Assert.assertEquals("steve", params.get("player").get());
+        Assert.assertEquals("admin", params.get("role").get());
+    }
+
+    @Test
+    public void testIrregularSpacing() {
+        CommandDispatcher dispatcher = new CommandDispatcher();
+        SimpleParamsBase add = dispatcher.register("/team  add <player>");
+        SimpleParamsBase list = dispatcher.register("/team list  [page]");
+        Assert.assertEquals(1, add.getArgsBeforeParams());
+        Assert.assertEquals(1, list.getArgsBeforeParams());
+
+        SimpleParams params = dispatcher.createParams("team", new Arguments("add", "Steve"));
+        Assert.assertSame(add, params.getBase());
+        Assert.assertTrue(params.valid());
+        Assert.assertEquals("Steve", params.get("player").get());
+
+        params = dispatcher.createParams("team", new Arguments("list", "3"));
+        Assert.assertSame(list, params.getBase());
+        Assert.assertEquals("3", params.get("page").get());
+
+        SimpleParamsBase trailing = SimpleParamsBase.fromUsageString("/team list ");
+        Assert.assertEquals(Arrays.asList("list"), trailing.getLiterals());
+        Assert.assertEquals(1, trailing.getArgsBeforeParams());
+    }
+
+    @Test
+    public void testManyCommands() {
+        CommandDispatcher dispatcher = new CommandDispatcher();
+        for (int i = 0; i < 10000; i++) {
+            dispatcher.register("/cmd" + (i % 100) + " sub" + (i / 100) + " <x>");
+        }
+        Assert.assertEquals(10000, dispatcher.size());
+        SimpleParams params = dispatcher.createParams("cmd42", new Arguments("sub77", "v"));
+        Assert.assertEquals(Collections.singletonList("sub77"), params.getBase().getLiterals());
+        Assert.assertEquals("v", params.get("x").get());
+    }
+}
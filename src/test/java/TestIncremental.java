@@ -0,0 +1,131 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+import pw.ollie.args.Argument;
+import pw.ollie.args.Arguments;
+import pw.ollie.args.IncrementalParser;
+import pw.ollie.args.params.Params;
+import pw.ollie.args.params.impl.SimpleParamsBase;
+
+import java.util.Random;
+
+public class TestIncremental {
+    @Test
+    public void testTyping() {
+        SimpleParamsBase base = SimpleParamsBase.fromUsageString(
+                "/give <-a amount> <player> [item]");
+        IncrementalParser parser = new IncrementalParser(base);
+
+        String command = "-a 64 Steve \"stone block\"";
+        Arguments args = null;
+        for (int i = 0; i < command.length(); i++) {
+            args = parser.append(command.substring(i, i + 1));
+            assertSameTokens(Arguments.parse(parser.getText()), args);
+        }
+
+        Params params = args.getParams();
+        Assert.assertTrue("VALID", params.valid());
+        Assert.assertEquals("ITEM", "stone block", params.get("item").get());
+        Assert.assertEquals("FLAG", 64, args.getValueFlag("a").getValue().asInt());
+
+        // editing the item keeps the player's objects
+        Argument player = args.get(0, false);
+        Arguments edited = parser.replace(command.length() - 6, command.length() - 1, "brick");
+        Assert.assertEquals("EDIT", "stone brick", edited.getString(1, false));
+        Assert.assertSame("REUSE", player, edited.get(0, false));
+        Assert.assertSame("REUSE", params.get("player"), edited.getParams().get("player"));
+        Assert.assertSame("REUSE", args.getValueFlag("a"), edited.getValueFlag("a"));
+        Assert.assertNotSame("CHANGED", params.get("item"), edited.getParams().get("item"));
+    }
+
+    @Test
+    public void testVariadic() {
+        SimpleParamsBase base = SimpleParamsBase.fromUsageString("/sum <first> <values:int...>");
+        IncrementalParser parser = new IncrementalParser(base);
+        parser.append("x");
+        int[] expected = new int[300];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = i;
+            parser.append(" " + i);
+        }
+        Assert.assertArrayEquals("TYPED", expected, parser.getArguments().getParams().getInts("values"));
+
+        // the values before an edit are known to be unchanged
+        Arguments previous = parser.getArguments();
+        int start = parser.getText().indexOf(" 150 ") + 1;
+        Arguments edited = parser.replace(start, start + 3, "77");
+        expected[150] = 77;
+        Assert.assertEquals("UNCHANGED", 151, edited.unchangedSince(previous));
+        Assert.assertEquals("UNKNOWN", 0, previous.unchangedSince(edited));
+        Assert.assertArrayEquals("EDITED", expected, edited.getParams().getInts("values"));
+
+        Assert.assertNull("INVALID", parser.append("z").getParams().getInts("values"));
+    }
+
+    @Test
+    public void testRandomEdits() {
+        randomEdits(40, 5000);
+        // long lines span many chunks
+        randomEdits(2000, 3000);
+    }
+
+    private static void randomEdits(int maxLength, int edits) {
+        Random random = new Random(42);
+        String alphabet = "ab -\"'\\ ";
+        IncrementalParser parser = new IncrementalParser();
+        for (int n = 0; n < edits; n++) {
+            int length = parser.length();
+            int start = random.nextInt(length + 1);
+            int end = start + random.nextInt(Math.min(3, length - start) + 1);
+            StringBuilder insert = new StringBuilder();
+            for (int i = random.nextInt(3); i > 0; i--) {
+                insert.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            if (length > maxLength) {
+                parser.delete(0, maxLength / 2);
+            }
+            Arguments args = parser.replace(Math.min(start, parser.length()),
+                    Math.min(end, parser.length()), insert);
+            assertSameTokens(Arguments.parse(parser.getText()), args);
+        }
+    }
+
+    private static void assertSameTokens(Arguments expected, Arguments actual) {
+        Assert.assertArrayEquals("TOKENS", expected.toStringArray(), actual.toStringArray());
+        Assert.assertEquals("POS", expected.length(false), actual.length(false));
+        for (int i = 0; i < expected.length(false); i++) {
+            Assert.assertEquals("POS", expected.getString(i, false), actual.getString(i, false));
+        }
+        for (String flag : new String[] {"a", "B", "ab", "-"}) {
+            Assert.assertEquals("FLAG", expected.hasValueFlag(flag), actual.hasValueFlag(flag));
+            Assert.assertEquals("FLAG", expected.hasNonValueFlag(flag), actual.hasNonValueFlag(flag));
+            if (expected.hasValueFlag(flag)) {
+                Assert.assertEquals("VALUE", expected.getValueFlag(flag).getValue().get(),
+                        actual.getValueFlag(flag).getValue().get());
+            }
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+import pw.ollie.args.Arguments;
+import pw.ollie.args.params.ParamInfo;
+import pw.ollie.args.params.ParamSelector;
+import pw.ollie.args.params.impl.SimpleParams;
+import pw.ollie.args.params.impl.SimpleParamsBase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+public class TestProcessorChain {
+    @Test
+    public void testRegistration() {
+        SimpleParamsBase base = SimpleParamsBase.fromUsageString("/cmd <a>");
+        BiFunction<ParamInfo, String, String> upper = (info, arg) -> arg.toUpperCase();
+        BiFunction<ParamInfo, String, String> suffix = (info, arg) -> arg + "!";
+        base.registerProcessor(upper);
+        base.registerProcessor(suffix);
+        Assert.assertEquals("X!", base.createParams(new Arguments("x")).get("a").get());
+        base.unregisterProcessor(upper);
+        Assert.assertEquals("x!", base.createParams(new Arguments("x")).get("a").get());
+        base.unregisterProcessor(upper);
+        base.unregisterProcessor(suffix);
+        Assert.assertEquals("x", base.createParams(new Arguments("x")).get("a").get());
+    }
+
+    @Test
+    public void testSelectors() {
+        SimpleParamsBase base = SimpleParamsBase.fromUsageString(
+                "/cmd <a> <b> [c]");
+        AtomicInteger calls = new AtomicInteger();
+        BiFunction<ParamInfo, String, String> upper = (info, arg) -> {
+            calls.incrementAndGet();
+            return arg.toUpperCase();
+        };
+        base.registerProcessor(ParamSelector.named("b"), upper);
+        base.registerProcessor(ParamSelector.optional(), (info, arg) -> arg + "?");
+        base.registerProcessor(ParamSelector.named("a", "c"), (info, arg) -> arg + "!");
+
+        SimpleParams params = base.createParams(new Arguments("x", "y", "z"));
+        Assert.assertEquals("x!", params.get("a").get());
+        Assert.assertEquals("Y", params.get("b").get());
+        Assert.assertEquals("z?!", params.get("c").get());
+        // only called for the one selected parameter
+        Assert.assertEquals(1, calls.get());
+
+        base.unregisterProcessor(upper);
+        params = base.createParams(new Arguments("x", "y", "z"));
+        Assert.assertEquals("y", params.get("b").get());
+        Assert.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testLazyValues() {
+        SimpleParamsBase base = SimpleParamsBase.fromUsageString(
+                "/cmd <a> <b> [c] <-f flag>");
+        AtomicInteger calls = new AtomicInteger();
+        base.registerProcessor((info, arg) -> {
+            calls.incrementAndGet();
+            return arg.toUpperCase();
+        });
+        base.setLazyValues(true);
+
+        SimpleParams params = base.createParams(new Arguments("x", "y", "-f", "z"));
+        Assert.assertTrue(params.valid());
+        Assert.assertTrue(params.has("b"));
+        Assert.assertFalse(params.has("c"));
+        Assert.assertEquals(2, params.parameters().size());
+        Assert.assertEquals(0, calls.get());
+
+        Assert.assertEquals("Y", params.get("b").get());
+        Assert.assertSame(params.get("b"), params.get(base.key("b")));
+        Assert.assertEquals(1, calls.get());
+        Assert.assertNull(params.get("c"));
+        Assert.assertEquals(2, params.values().size());
+        Assert.assertEquals(2, calls.get());
+
+        // validation doesn't wait for values
+        params = base.createParams(new Arguments("x", "y"));
+        Assert.assertFalse(params.valid());
+        Assert.assertEquals(2, calls.get());
+        Assert.assertEquals("X", params.get("a").get());
+    }
+
+    @Test
+    public void testAsync() throws Exception {
+        SimpleParamsBase base = SimpleParamsBase.fromUsageString(
+                "/cmd <player> <target>");
+        // stands in for a lookup, such as of a player's UUID, which only
+        // finishes once both lookups are running at the same time
+        CyclicBarrier bothRunning = new CyclicBarrier(2);
+        base.registerProcessor(ParamSelector.named("player", "target"), (info, arg) -> {
+            await(bothRunning);
+            return arg + "-id";
+        });
+
+        SimpleParamsBase slow = SimpleParamsBase.fromUsageString(
+                "/cmd <player> [reason]");
+        slow.registerProcessor(ParamSelector.named("player"), (info, arg) -> arg + "-id");
+        // a lookup which never finishes
+        CountDownLatch never = new CountDownLatch(1);
+        slow.registerProcessor(ParamSelector.named("reason"), (info, arg) -> {
+            try {
+                never.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "late";
+        });
+
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            SimpleParams params = base.createParamsAsync(
+                    new Arguments("a", "b"), executor).get(30, TimeUnit.SECONDS);
+            Assert.assertTrue(params.valid());
+            Assert.assertEquals("a-id", params.get("player").get());
+            Assert.assertEquals("b-id", params.get("target").get());
+
+            params = slow.createParamsAsync(new Arguments("a", "c"),
+                    executor, 1, TimeUnit.SECONDS).get(30, TimeUnit.SECONDS);
+            Assert.assertFalse(params.valid());
+            Assert.assertEquals("a-id", params.get("player").get());
+            Assert.assertEquals("c", params.get("reason").get());
+
+            SimpleParamsBase failing = SimpleParamsBase.fromUsageString("/cmd <a>");
+            failing.registerProcessor((info, arg) -> {
+                throw new IllegalStateException(arg);
+            });
+            try {
+                failing.createParamsAsync(new Arguments("x"), executor)
+                        .get(10, TimeUnit.SECONDS);
+                Assert.fail();
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+
+            // without processors the future is already complete
+            Assert.assertTrue(SimpleParamsBase.fromUsageString("/cmd <a>")
+                    .createParamsAsync(new Arguments("x"), executor).isDone());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRegistrationChurn() throws Exception {
+        SimpleParamsBase base = SimpleParamsBase.fromUsageString("/cmd <a> <b>");
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch started = new CountDownLatch(threads);
+        try {
+            List<Future<Long>> parsers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                parsers.add(executor.submit(() -> {
+                    started.countDown();
+                    long parses = 0;
+                    while (running.get()) {
+                        SimpleParams params = base.createParams(new Arguments("x", "y"));
+                        // each parse sees one snapshot of the chain, which
+                        // appends between zero and four markers
+                        String a = params.get("a").get();
+                        String b = params.get("b").get();
+                        Assert.assertTrue(a, a.matches("x\\+{0,4}"));
+                        Assert.assertTrue(b, b.matches("y\\+{0,4}"));
+                        parses++;
+                    }
+                    return parses;
+                }));
+            }
+
+            Future<Integer> churn = executor.submit(() -> {
+                started.await();
+                List<BiFunction<ParamInfo, String, String>> registered = new ArrayList<>();
+                int changes = 0;
+                long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500);
+                while (System.nanoTime() < end) {
+                    if (registered.size() < 4 && (registered.isEmpty() || changes % 3 != 0)) {
+                        BiFunction<ParamInfo, String, String> processor = (info, arg) -> arg + "+";
+                        base.registerProcessor(processor);
+                        registered.add(processor);
+                    } else {
+                        base.unregisterProcessor(registered.remove(changes % registered.size()));
+                    }
+                    changes++;
+                }
+                running.set(false);
+                return changes;
+            });
+
+            Assert.assertTrue(churn.get(30, TimeUnit.SECONDS) > 0);
+            for (Future<Long> parser : parsers) {
+                Assert.assertTrue(parser.get(30, TimeUnit.SECONDS) > 0);
+            }
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(30, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException("Lookups didn't run concurrently", e);
+        }
+    }
+}
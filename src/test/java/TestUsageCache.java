@@ -0,0 +1,111 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+import pw.ollie.args.Arguments;
+import pw.ollie.args.params.impl.SimpleParamsBase;
+import pw.ollie.args.params.impl.UsageCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class TestUsageCache {
+    @Test
+    public void testSharedBases() {
+        SimpleParamsBase shared = SimpleParamsBase.cached("/cmd <a> [b]");
+        Assert.assertSame(shared, SimpleParamsBase.cached("/cmd <a> [b]"));
+        Assert.assertTrue(shared.isShared());
+        try {
+            shared.registerProcessor((info, arg) -> arg);
+            Assert.fail();
+        } catch (UnsupportedOperationException expected) {
+        }
+
+        SimpleParamsBase own = SimpleParamsBase.fromUsageString("/cmd <a> [b]");
+        Assert.assertNotSame(own, SimpleParamsBase.fromUsageString("/cmd <a> [b]"));
+        Assert.assertFalse(own.isShared());
+        own.registerProcessor((info, arg) -> arg.toUpperCase());
+        Assert.assertEquals(2, own.length());
+        Assert.assertEquals(1, own.getAmtRequired());
+        Assert.assertEquals("X", own.createParams(new Arguments("x")).get("a").get());
+        Assert.assertEquals("x", shared.createParams(new Arguments("x")).get("a").get());
+    }
+
+    @Test
+    public void testSegmentedEviction() {
+        UsageCache cache = new UsageCache(10);
+        SimpleParamsBase hot = cache.get("/hot <a>");
+        cache.get("/hot <a>");
+        for (int i = 0; i < 100; i++) {
+            cache.get("/cold" + i + " <a>");
+        }
+        Assert.assertEquals(10, cache.size());
+        Assert.assertSame(hot, cache.get("/hot <a>"));
+        Assert.assertEquals(91, cache.getEvictionCount());
+        Assert.assertEquals(101, cache.getMissCount());
+        Assert.assertEquals(2, cache.getHitCount());
+
+        try {
+            cache.get("/bad <ids:byte...>");
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        // failures aren't cached
+        Assert.assertEquals(9, cache.size());
+        Assert.assertSame(hot, cache.get("/hot <a>"));
+    }
+
+    @Test
+    public void testConcurrentMisses() throws Exception {
+        UsageCache cache = new UsageCache(64);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int round = 0; round < 50; round++) {
+                String usage = "/cmd" + round + " <a> [b] <-f val>";
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<SimpleParamsBase>> results = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        return cache.get(usage);
+                    }));
+                }
+                start.countDown();
+                SimpleParamsBase first = results.get(0).get();
+                for (Future<SimpleParamsBase> result : results) {
+                    Assert.assertSame(first, result.get());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertEquals(50, cache.getMissCount());
+        Assert.assertEquals(350, cache.getHitCount());
+    }
+}
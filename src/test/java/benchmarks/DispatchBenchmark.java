@@ -0,0 +1,126 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import pw.ollie.args.Arguments;
+import pw.ollie.args.params.impl.CommandDispatcher;
+import pw.ollie.args.params.impl.SimpleParamsBase;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares routing commands to one of many registered {@link
+ * SimpleParamsBase}s with a {@link CommandDispatcher} and with a {@link
+ * HashMap} on the command, followed by trying each of the command's bases in
+ * order.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+    /**
+     * The amount of subcommands of each command.
+     */
+    @Param({"10", "100"})
+    public int subcommands;
+
+    /**
+     * The amount of registered usage strings.
+     */
+    private static final int COMMANDS = 10000;
+
+    private CommandDispatcher dispatcher;
+    private Map<String, List<SimpleParamsBase>> byCommand;
+    private String[] labels;
+    private Arguments[] lines;
+
+    @Setup
+    public void setup() {
+        dispatcher = new CommandDispatcher();
+        byCommand = new HashMap<>();
+        for (int i = 0; i < COMMANDS; i++) {
+            String command = "cmd" + i / subcommands;
+            SimpleParamsBase base = dispatcher.register("/" + command + " sub"
+                    + i % subcommands + " <player> [amount]");
+            byCommand.computeIfAbsent(command, c -> new ArrayList<>())
+                    .add(base);
+        }
+
+        Random random = new Random(42);
+        labels = new String[1024];
+        lines = new Arguments[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            int command = random.nextInt(COMMANDS);
+            labels[i] = "cmd" + command / subcommands;
+            lines[i] = Arguments.parse("sub" + command % subcommands
+                    + " Steve 64");
+        }
+    }
+
+    @Benchmark
+    public void dispatcher(Blackhole bh) {
+        for (int i = 0; i < lines.length; i++) {
+            bh.consume(dispatcher.dispatch(labels[i], lines[i]));
+        }
+    }
+
+    @Benchmark
+    public void mapThenTryInOrder(Blackhole bh) {
+        for (int i = 0; i < lines.length; i++) {
+            bh.consume(tryInOrder(byCommand.get(labels[i]), lines[i]));
+        }
+    }
+
+    private static SimpleParamsBase tryInOrder(List<SimpleParamsBase> bases,
+            Arguments args) {
+        String first = args.getString(0, false);
+        for (SimpleParamsBase base : bases) {
+            if (base.getLiterals().get(0).equals(first)) {
+                return base;
+            }
+        }
+        return null;
+    }
+}
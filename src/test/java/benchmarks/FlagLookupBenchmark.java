@@ -0,0 +1,92 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import pw.ollie.args.Arguments;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures flag lookups on commands with many flags.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlagLookupBenchmark {
+    @Param({"4", "32", "256"})
+    public int flags;
+
+    private String[] raw;
+    private String[] names;
+    private Arguments args;
+
+    @Setup
+    public void setup() {
+        raw = new String[flags * 3];
+        names = new String[flags];
+        for (int i = 0; i < flags; i++) {
+            names[i] = "Flag" + i;
+            raw[i * 3] = "-flag" + i;
+            raw[i * 3 + 1] = "value" + i;
+            raw[i * 3 + 2] = "--switch" + i;
+        }
+        args = new Arguments(raw);
+    }
+
+    @Benchmark
+    public void lookupAll(Blackhole bh) {
+        for (String name : names) {
+            bh.consume(args.hasValueFlag(name));
+        }
+    }
+
+    @Benchmark
+    public void missingFlag(Blackhole bh) {
+        bh.consume(args.hasNonValueFlag("absent"));
+    }
+
+    @Benchmark
+    public void parseAndLookupAll(Blackhole bh) {
+        Arguments parsed = new Arguments(raw);
+        for (String name : names) {
+            bh.consume(parsed.hasValueFlag(name));
+        }
+    }
+}
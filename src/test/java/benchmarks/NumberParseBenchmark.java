@@ -0,0 +1,97 @@
+/*
+ * This file is part of jlibargs, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014-2019 Oliver Stanley <http://ollie.pw>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import pw.ollie.args.Argument;
+import pw.ollie.args.Arguments;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing a command of many numeric tokens with the JDK's parsers,
+ * with {@link Argument#asLong()} on each argument and with the bulk {@link
+ * Arguments#getLongs(int, boolean)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumberParseBenchmark {
+    /**
+     * The maximum number of digits of each number.
+     */
+    @Param({"4", "10", "18"})
+    public int digits;
+
+    private String[] raw;
+    private Arguments args;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        raw = new String[1000];
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < raw.length; i++) {
+            long bound = (long) Math.pow(10, 1 + random.nextInt(digits));
+            raw[i] = Long.toString((random.nextLong() >>> 1) % bound);
+            line.append(raw[i]).append(' ');
+        }
+        args = Arguments.parse(line.toString());
+    }
+
+    @Benchmark
+    public void jdkParseLong(Blackhole bh) {
+        for (String value : raw) {
+            bh.consume(Long.parseLong(value));
+        }
+    }
+
+    @Benchmark
+    public void argumentAsLong(Blackhole bh) {
+        for (String value : raw) {
+            bh.consume(new Argument(value).asLong());
+        }
+    }
+
+    @Benchmark
+    public long[] bulkGetLongs() {
+        return args.getLongs(0, true);
+    }
+}